@@ -0,0 +1,84 @@
+// Carga mista leitura/escrita para comparar o modo padrão (pool de threads do Tomcat)
+// com virtual threads (VIRTUAL_THREADS=true, Java 21+).
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e TAXA=300 carga/misto.js
+//
+// Compare http_reqs (vazão) e os percentis p(99) por endpoint (tag "nome") nos dois modos.
+import http from "k6/http";
+import { check } from "k6";
+
+const BASE_URL = __ENV.BASE_URL || "http://localhost:8080";
+const TAXA = Number(__ENV.TAXA || 200);
+const DURACAO = __ENV.DURACAO || "2m";
+
+export const options = {
+    scenarios: {
+        // Leituras baratas e caras (findAll) disputando o mesmo pool
+        leituras: {
+            executor: "constant-arrival-rate",
+            exec: "leituras",
+            rate: Math.round(TAXA * 0.8),
+            timeUnit: "1s",
+            duration: DURACAO,
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+        escritas: {
+            executor: "constant-arrival-rate",
+            exec: "escritas",
+            rate: Math.max(1, Math.round(TAXA * 0.2)),
+            timeUnit: "1s",
+            duration: DURACAO,
+            preAllocatedVUs: 50,
+            maxVUs: 500,
+        },
+    },
+    summaryTrendStats: ["avg", "p(50)", "p(95)", "p(99)", "max"],
+    thresholds: {
+        "http_req_failed": ["rate<0.01"],
+        "http_req_duration{nome:calculos}": ["p(99)<500"],
+        "http_req_duration{nome:pagina}": ["p(99)<500"],
+    },
+};
+
+const PRODUTOS = ["arroz", "feijão", "milho", "trigo", "soja"];
+const JSON_HEADERS = { headers: { "Content-Type": "application/json" } };
+
+function hoje(deslocamentoDias) {
+    const d = new Date(Date.now() + deslocamentoDias * 86400000);
+    return d.toISOString().slice(0, 10);
+}
+
+export function setup() {
+    // Garante que os produtos existam antes das vendas
+    for (const produto of PRODUTOS) {
+        http.post(`${BASE_URL}/api/entradas`, JSON.stringify({
+            dataEntrada: hoje(-30), fornecedor: "carga", produto, precoCompra: 10, prazoPagto: 30,
+        }), JSON_HEADERS);
+    }
+}
+
+export function leituras() {
+    const r = Math.random();
+    let res;
+    if (r < 0.4) {
+        res = http.get(`${BASE_URL}/api/gestao/calculos`, { tags: { nome: "calculos" } });
+    } else if (r < 0.8) {
+        res = http.get(`${BASE_URL}/api/vendas/pagina?limite=100`, { tags: { nome: "pagina" } });
+    } else {
+        res = http.get(`${BASE_URL}/api/vendas`, { tags: { nome: "vendas-todas" } });
+    }
+    check(res, { "leitura 200": (x) => x.status === 200 });
+}
+
+export function escritas() {
+    const produto = PRODUTOS[Math.floor(Math.random() * PRODUTOS.length)];
+    const res = Math.random() < 0.5
+        ? http.post(`${BASE_URL}/api/entradas`, JSON.stringify({
+            dataEntrada: hoje(-10), fornecedor: "carga", produto, precoCompra: 10, prazoPagto: 30,
+        }), Object.assign({ tags: { nome: "entrada" } }, JSON_HEADERS))
+        : http.post(`${BASE_URL}/api/vendas`, JSON.stringify({
+            dataVenda: hoje(0), cliente: "carga", produto, precoVenda: 15, prazoPagto: 20,
+        }), Object.assign({ tags: { nome: "venda" } }, JSON_HEADERS));
+    check(res, { "escrita 2xx": (x) => x.status >= 200 && x.status < 300 });
+}
@@ -0,0 +1,72 @@
+package com.empresa.aplicacao.benchmarks;
+
+import com.empresa.aplicacao.services.CalculoService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculos de um cenário por chamada do CalculoService (sem acesso ao banco).
+ *
+ * Os parâmetros vêm de um vetor pré-gerado percorrido em ciclo, para que o JIT
+ * não dobre as contas em constantes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculoFinanceiroBenchmark {
+
+    private static final int CENARIOS = 1024;
+
+    private final CalculoService calculoService = new CalculoService();
+    private final double[] a = new double[CENARIOS];
+    private final double[] b = new double[CENARIOS];
+    private final double[] c = new double[CENARIOS];
+    private final double[] d = new double[CENARIOS];
+    private int i;
+
+    @Setup(Level.Trial)
+    public void gerarCenarios() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int k = 0; k < CENARIOS; k++) {
+            a[k] = random.nextDouble(1, 100_000);
+            b[k] = random.nextDouble(1, 120);
+            c[k] = random.nextDouble(1, 120);
+            d[k] = random.nextDouble(1, 120);
+        }
+    }
+
+    private int proximo() {
+        return i = (i + 1) & (CENARIOS - 1);
+    }
+
+    @Benchmark
+    public Object saldoMinimoCaixa() {
+        int k = proximo();
+        return calculoService.calcularSaldoMinimoCaixa(a[k], b[k], c[k], d[k]);
+    }
+
+    @Benchmark
+    public double loteEconomico() {
+        int k = proximo();
+        return calculoService.calcularLoteEconomico(a[k], b[k], c[k]);
+    }
+
+    @Benchmark
+    public double custoEstoque() {
+        int k = proximo();
+        // le = 0: o lote econômico é calculado internamente
+        return calculoService.calcularCustoEstoque(a[k], b[k], c[k], 0);
+    }
+
+    @Benchmark
+    public void produtividade(Blackhole bh) {
+        int k = proximo();
+        bh.consume(calculoService.calcularProdutividade(a[k], b[k], c[k], d[k], b[k], c[k], d[k]));
+    }
+}
@@ -0,0 +1,58 @@
+package com.empresa.aplicacao.benchmarks;
+
+import com.empresa.aplicacao.services.IndicadoresSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resposta de /api/gestao/calculos: bytes alocados por requisição (gc.alloc.rate.norm com -prof gc).
+ *
+ *  - mapa: caminho antigo, HashMap&lt;String, Double&gt; serializado pelo Jackson;
+ *  - serializador: IndicadoresSnapshot com o serializador de primitivos;
+ *  - jsonReutilizado: bytes serializados uma vez por valor do cache (caminho atual).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndicadoresRespostaBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IndicadoresSnapshot snapshot =
+            new IndicadoresSnapshot(32.5, 41.25, 28.0, 73.75, 45.75, 7.87, 152_500.0);
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void serializar() throws JsonProcessingException {
+        json = objectMapper.writeValueAsBytes(snapshot);
+    }
+
+    @Benchmark
+    public byte[] mapa() throws JsonProcessingException {
+        Map<String, Double> resultado = new HashMap<>();
+        resultado.put("pmre", snapshot.pmre());
+        resultado.put("pmrv", snapshot.pmrv());
+        resultado.put("pmpf", snapshot.pmpf());
+        resultado.put("cicloOperacional", snapshot.cicloOperacional());
+        resultado.put("cicloCaixa", snapshot.cicloCaixa());
+        resultado.put("saldoMinimo", snapshot.saldoMinimo());
+        return objectMapper.writeValueAsBytes(resultado);
+    }
+
+    @Benchmark
+    public byte[] serializador() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(snapshot);
+    }
+
+    @Benchmark
+    public byte[] jsonReutilizado() {
+        return json;
+    }
+}
@@ -0,0 +1,70 @@
+package com.empresa.aplicacao.benchmarks;
+
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Venda;
+import com.empresa.aplicacao.services.PmreEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PMRE calculado a partir das linhas (caminho do modo FIFO e da reconstrução).
+ *
+ * Massa sintética com metade entradas e metade vendas, distribuídas entre
+ * {@code produtos} produtos em um ano de datas. Semente fixa para comparar execuções.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PmreBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int linhas;
+
+    @Param({"10", "1000", "100000"})
+    private int produtos;
+
+    private List<Entrada> entradas;
+    private List<Venda> vendas;
+
+    @Setup(Level.Trial)
+    public void gerarMassa() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+
+        entradas = new ArrayList<>(linhas / 2);
+        vendas = new ArrayList<>(linhas / 2);
+        for (int i = 0; i < linhas / 2; i++) {
+            int produto = random.nextInt(produtos);
+
+            Entrada e = new Entrada();
+            e.setProduto("produto-" + produto);
+            e.setProdutoId(produto);
+            e.setDataEntrada(inicio.plusDays(random.nextInt(365)));
+            entradas.add(e);
+
+            Venda v = new Venda();
+            v.setProduto("produto-" + produto);
+            v.setProdutoId(produto);
+            v.setDataVenda(inicio.plusDays(random.nextInt(365)));
+            vendas.add(v);
+        }
+    }
+
+    @Benchmark
+    public double mediaPares() {
+        return PmreEngine.calcular(entradas, vendas, PmreEngine.Modo.MEDIA_PARES);
+    }
+
+    @Benchmark
+    public double fifo() {
+        return PmreEngine.calcular(entradas, vendas, PmreEngine.Modo.FIFO);
+    }
+}
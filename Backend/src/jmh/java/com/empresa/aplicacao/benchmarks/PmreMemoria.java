@@ -0,0 +1,288 @@
+package com.empresa.aplicacao.benchmarks;
+
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Venda;
+import com.empresa.aplicacao.repositories.EntradaRepository;
+import com.empresa.aplicacao.repositories.VendaRepository;
+import com.empresa.aplicacao.services.CalculoService;
+import com.empresa.aplicacao.services.PmreEngine;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.empresa.aplicacao.tenant.TenantResolver;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Heap do PMRE FIFO no caminho real (Hibernate, contexto de persistência, cursor JDBC):
+ * entidades gerenciadas carregadas com findAll (caminho antigo) x CalculoService.calcularPMRE()
+ * com a projeção produto/data em streaming.
+ *
+ * Não é um benchmark JMH. Os dois caminhos rodam na mesma transação somente leitura e como o
+ * mesmo tenant. "retido" é o maior heap vivo observado durante a chamada (GC forçado a cada
+ * 50 ms e, no caminho com entidades, também com as listas carregadas); "pico" soma os picos
+ * dos pools de heap; "tempo" vem de uma execução separada, sem os GCs forçados.
+ *
+ * Por padrão usa um H2 em memória (modo MySQL, LAZY_QUERY_EXECUTION para o resultado não ser
+ * materializado): as tabelas ficam no mesmo heap, mas constantes durante a medição e descontadas
+ * na linha de base. Para o MySQL: -Dpmre.url=jdbc:mysql://... -Dpmre.usuario -Dpmre.senha
+ * (o banco é limpo e recriado pelo Flyway).
+ *
+ *   mvn -Pbenchmarks test-compile exec:exec -Djmh.main=com.empresa.aplicacao.benchmarks.PmreMemoria -Djmh.args="100000 1000000"
+ */
+public final class PmreMemoria {
+
+    private static final int PRODUTOS = 1000;
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final String TENANT = "benchmark@empresa.com";
+
+    private PmreMemoria() {}
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> tamanhos = new ArrayList<>();
+        for (String arg : args) tamanhos.add(Integer.parseInt(arg.replace("_", "")));
+        if (tamanhos.isEmpty()) tamanhos = List.of(100_000, 1_000_000);
+
+        String url = System.getProperty("pmre.url",
+                "jdbc:h2:mem:pmre;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LAZY_QUERY_EXECUTION=TRUE;DB_CLOSE_DELAY=-1");
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(System.getProperty("pmre.usuario", "sa"));
+        config.setPassword(System.getProperty("pmre.senha", ""));
+        config.setMaximumPoolSize(2);
+
+        try (HikariDataSource pool = new HikariDataSource(config);
+             AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            DataSource dataSource = url.startsWith("jdbc:h2:") ? semFetchSizeNegativo(pool) : pool;
+            contexto.registerBean(DataSource.class, () -> dataSource);
+            contexto.register(JpaConfig.class);
+            contexto.refresh();
+
+            EntradaRepository entradas = contexto.getBean(EntradaRepository.class);
+            VendaRepository vendas = contexto.getBean(VendaRepository.class);
+            PlatformTransactionManager transacoes = contexto.getBean(PlatformTransactionManager.class);
+
+            CalculoService calculoService = new CalculoService();
+            ReflectionTestUtils.setField(calculoService, "entradaRepository", entradas);
+            ReflectionTestUtils.setField(calculoService, "vendaRepository", vendas);
+            ReflectionTestUtils.setField(calculoService, "transactionManager", transacoes);
+            ReflectionTestUtils.setField(calculoService, "modoPmre", PmreEngine.Modo.FIFO);
+
+            TransactionTemplate leitura = new TransactionTemplate(transacoes);
+            leitura.setReadOnly(true);
+            Amostrador amostrador = new Amostrador();
+
+            // Como antes: todas as linhas viram entidades gerenciadas e só então são agrupadas
+            DoubleSupplier comEntidades = () -> TenantContexto.executar(TENANT, () -> leitura.execute(status -> {
+                List<Entrada> todasEntradas = entradas.findAll();
+                List<Venda> todasVendas = vendas.findAll();
+                amostrador.amostrar();
+                return PmreEngine.calcular(todasEntradas, todasVendas, PmreEngine.Modo.FIFO);
+            }));
+            // Como agora
+            DoubleSupplier comProjecao = () -> TenantContexto.executar(TENANT, calculoService::calcularPMRE);
+
+            System.out.printf("%-10s %10s %12s %12s %10s %10s%n", "caminho", "linhas", "retido (MB)", "pico (MB)",
+                    "tempo (ms)", "pmre");
+            for (int linhas : tamanhos) {
+                popular(pool, linhas);
+                // Aquecimento (classes carregadas, JIT e cache do banco) fora da medição
+                comEntidades.getAsDouble();
+                comProjecao.getAsDouble();
+
+                medir("entidades", linhas, comEntidades, amostrador);
+                medir("projecao", linhas, comProjecao, amostrador);
+            }
+        }
+    }
+
+    private static void medir(String caminho, int linhas, DoubleSupplier calculo, Amostrador amostrador)
+            throws InterruptedException {
+        long inicio = System.nanoTime();
+        calculo.getAsDouble();
+        double tempoMs = (System.nanoTime() - inicio) / 1e6;
+
+        long base = heapAposGc();
+        List<MemoryPoolMXBean> pools = poolsDeHeap();
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        amostrador.iniciar();
+        double pmre = calculo.getAsDouble();
+        long retido = amostrador.parar();
+
+        long pico = 0;
+        for (MemoryPoolMXBean pool : pools) pico += pool.getPeakUsage().getUsed();
+        System.out.printf("%-10s %10d %12.1f %12.1f %10.0f %10.3f%n", caminho, linhas,
+                mb(retido - base), mb(pico - base), tempoMs, pmre);
+    }
+
+    // Mesma distribuição para entradas e vendas: 1000 produtos, datas em um ano
+    private static void popular(DataSource dataSource, int linhas) {
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        List<Object[]> produtos = new ArrayList<>();
+        for (int p = 1; p <= PRODUTOS; p++) produtos.add(new Object[]{p, "produto-" + p, "produto-" + p});
+        jdbc.batchUpdate("insert into produto (id, nome, chave) values (?, ?, ?)", produtos);
+
+        inserir(jdbc, "insert into entrada (data_entrada, fornecedor, produto, produto_id, preco_compra, prazo_pagto, tenant_id) "
+                + "values (?, ?, ?, ?, 10, 30, ?)", "fornecedor-", linhas / 2, new SplittableRandom(42));
+        inserir(jdbc, "insert into venda (data_venda, cliente, produto, produto_id, preco_venda, prazo_pagto, tenant_id) "
+                + "values (?, ?, ?, ?, 15, 20, ?)", "cliente-", linhas / 2, new SplittableRandom(43));
+    }
+
+    private static void inserir(JdbcTemplate jdbc, String sql, String contraparte, int linhas, SplittableRandom random) {
+        List<Object[]> lote = new ArrayList<>();
+        for (int i = 0; i < linhas; i++) {
+            int produto = 1 + random.nextInt(PRODUTOS);
+            lote.add(new Object[]{Date.valueOf(INICIO.plusDays(random.nextInt(365))),
+                    contraparte + random.nextInt(100), "produto-" + produto, produto, TENANT});
+            if (lote.size() == 10_000 || i == linhas - 1) {
+                jdbc.batchUpdate(sql, lote);
+                lote.clear();
+            }
+        }
+    }
+
+    // O H2 recusa o fetch size Integer.MIN_VALUE (cursor do MySQL); com LAZY_QUERY_EXECUTION ele já lê sob demanda
+    private static DataSource semFetchSizeNegativo(HikariDataSource pool) {
+        return (DataSource) Proxy.newProxyInstance(PmreMemoria.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, metodo, argumentos) -> {
+                    Object resultado = invocar(pool, metodo, argumentos);
+                    return resultado instanceof Connection conexao ? conexao(conexao) : resultado;
+                });
+    }
+
+    private static Connection conexao(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(PmreMemoria.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    Object resultado = invocar(conexao, metodo, argumentos);
+                    if (!(resultado instanceof Statement statement)) return resultado;
+                    Class<?> tipo = metodo.getReturnType();
+                    return Proxy.newProxyInstance(PmreMemoria.class.getClassLoader(), new Class<?>[]{tipo},
+                            (p, m, a) -> m.getName().equals("setFetchSize") && (int) a[0] < 0 ? null : invocar(statement, m, a));
+                });
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(alvo, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Maior heap vivo durante a chamada: força GC a cada 50 ms numa thread separada.
+     */
+    private static final class Amostrador {
+        private final AtomicLong maximo = new AtomicLong();
+        private volatile boolean ativo;
+        private Thread thread;
+
+        void iniciar() {
+            maximo.set(0);
+            ativo = true;
+            thread = new Thread(() -> {
+                while (ativo) {
+                    amostrar();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "pmre-amostrador");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void amostrar() {
+            if (ativo) maximo.accumulateAndGet(heapAposGc(), Math::max);
+        }
+
+        long parar() throws InterruptedException {
+            ativo = false;
+            thread.interrupt();
+            thread.join();
+            return maximo.get();
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = EntradaRepository.class, includeFilters = @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE, classes = {EntradaRepository.class, VendaRepository.class}))
+    static class JpaConfig {
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+            fabrica.setDataSource(dataSource);
+            fabrica.setPackagesToScan("com.empresa.aplicacao.models");
+            fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            fabrica.setJpaPropertyMap(Map.of(
+                    "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                    "hibernate.tenant_identifier_resolver", new TenantResolver()));
+            return fabrica;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+
+    private static List<MemoryPoolMXBean> poolsDeHeap() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pools.add(pool);
+        }
+        return pools;
+    }
+
+    private static long heapAposGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
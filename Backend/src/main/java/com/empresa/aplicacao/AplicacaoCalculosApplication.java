@@ -2,8 +2,10 @@ package com.empresa.aplicacao;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AplicacaoCalculosApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(AplicacaoCalculosApplication.class, args);
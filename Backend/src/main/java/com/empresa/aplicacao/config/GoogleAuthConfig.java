@@ -0,0 +1,47 @@
+package com.empresa.aplicacao.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+
+/**
+ * Verificação dos ID tokens do Google com transporte e chaves públicas compartilhados.
+ *
+ * A URL dos certificados é configurável (google.certs-url) para apontar para um servidor
+ * local nos testes; o formato é o de https://www.googleapis.com/oauth2/v1/certs.
+ */
+@Configuration
+public class GoogleAuthConfig {
+
+	@Bean
+	public HttpTransport googleHttpTransport() throws GeneralSecurityException, IOException {
+		// Um transporte para toda a aplicação: as conexões HTTPS são reaproveitadas (keep-alive)
+		return GoogleNetHttpTransport.newTrustedTransport();
+	}
+
+	@Bean
+	public GooglePublicKeysManager googlePublicKeysManager(HttpTransport googleHttpTransport,
+			@Value("${google.certs-url:https://www.googleapis.com/oauth2/v1/certs}") String certsUrl) {
+		// Respeita o Cache-Control (max-age) da resposta; ver GoogleChavesAtualizador
+		return new GooglePublicKeysManager.Builder(googleHttpTransport, JacksonFactory.getDefaultInstance())
+				.setPublicCertsEncodedUrl(certsUrl)
+				.build();
+	}
+
+	@Bean
+	public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager,
+			@Value("${google.clientId}") String clientId) {
+		return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+				.setAudience(Collections.singletonList(clientId))
+				.build();
+	}
+}
@@ -0,0 +1,26 @@
+package com.empresa.aplicacao.config;
+
+import com.empresa.aplicacao.metricas.AmostragemSqlInspector;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+
+	// ✅ Habilita @Timed (ex.: CalculoService)
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry registry) {
+		return new TimedAspect(registry);
+	}
+
+	// ✅ Log de SQL amostrado no lugar do show-sql
+	@Bean
+	public HibernatePropertiesCustomizer amostragemSql(@Value("${sql.log.amostragem:0.01}") double taxa) {
+		return propriedades -> propriedades.put("hibernate.session_factory.statement_inspector",
+				new AmostragemSqlInspector(taxa));
+	}
+}
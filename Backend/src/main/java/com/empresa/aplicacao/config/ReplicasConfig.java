@@ -0,0 +1,72 @@
+package com.empresa.aplicacao.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura (só com datasource.replicas.urls definido). Sem a propriedade, o
+ * DataSource continua sendo o único pool criado pelo Spring Boot a partir de spring.datasource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.urls")
+public class ReplicasConfig {
+
+	// ✅ Pool do primário, com as mesmas propriedades spring.datasource.* de sempre
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primarioDataSource(DataSourceProperties propriedades) {
+		return propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	// ✅ Um pool por réplica, copiando a configuração do primário
+	@Bean
+	public RoteamentoDataSource roteamentoDataSource(HikariDataSource primarioDataSource,
+			@Value("${datasource.replicas.urls}") List<String> urls,
+			@Value("${datasource.replicas.username:${spring.datasource.username:}}") String usuario,
+			@Value("${datasource.replicas.password:${spring.datasource.password:}}") String senha,
+			@Value("${datasource.replicas.maximum-pool-size:0}") int tamanhoMaximo,
+			@Value("${datasource.replicas.connection-timeout-ms:1000}") long timeoutConexaoMs,
+			@Value("${datasource.replicas.atraso-maximo-s:0}") long atrasoMaximoS,
+			MeterRegistry meterRegistry) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < urls.size(); i++) {
+			String url = urls.get(i).trim();
+			if (url.isEmpty()) continue;
+
+			HikariConfig config = new HikariConfig();
+			primarioDataSource.copyStateTo(config);
+			config.setPoolName(primarioDataSource.getPoolName() + "-replica-" + (i + 1));
+			config.setJdbcUrl(url);
+			config.setUsername(usuario);
+			config.setPassword(senha);
+			config.setReadOnly(true);
+			if (tamanhoMaximo > 0) config.setMaximumPoolSize(tamanhoMaximo);
+			// Réplica fora do ar não deve segurar a leitura: desiste logo e cai no primário
+			config.setConnectionTimeout(timeoutConexaoMs);
+			// Nem impedir a inicialização da aplicação
+			config.setInitializationFailTimeout(-1);
+			replicas.add(new HikariDataSource(config));
+		}
+		return new RoteamentoDataSource(primarioDataSource, replicas, atrasoMaximoS, meterRegistry);
+	}
+
+	// ✅ DataSource da aplicação (JPA, Flyway, JdbcTemplate)
+	@Bean
+	@Primary
+	public DataSource dataSource(RoteamentoDataSource roteamentoDataSource) {
+		return new LazyConnectionDataSourceProxy(roteamentoDataSource);
+	}
+}
@@ -0,0 +1,217 @@
+package com.empresa.aplicacao.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que manda as transações somente leitura para as réplicas e o resto para o primário.
+ *
+ * Entre as réplicas saudáveis escolhe a com menos conexões ativas (empate: rodízio). Sem réplica
+ * saudável, ou se a conexão com a escolhida falhar, a leitura vai para o primário. A saúde é
+ * verificada em datasource.replicas.verificar-ms (conexão válida e, se configurado, atraso de
+ * replicação até datasource.replicas.atraso-maximo-s).
+ *
+ * Precisa ficar atrás de um LazyConnectionDataSourceProxy: a conexão só é pedida no primeiro
+ * comando, quando a transação já está marcada como somente leitura.
+ */
+public class RoteamentoDataSource extends AbstractDataSource implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(RoteamentoDataSource.class);
+
+	private static final ThreadLocal<Boolean> forcarPrimario = new ThreadLocal<>();
+
+	private final HikariDataSource primario;
+	private final List<Replica> replicas;
+	private final long atrasoMaximoS;
+	private final AtomicInteger rodizio = new AtomicInteger();
+
+	private final Counter conexoesPrimario;
+	private final Counter conexoesReplica;
+	private final Counter fallbacks;
+
+	private static final class Replica {
+		final HikariDataSource dataSource;
+		volatile boolean saudavel = true;
+		volatile String motivo;
+
+		Replica(HikariDataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		int ativas() {
+			HikariPoolMXBean mx = dataSource.getHikariPoolMXBean();
+			return mx == null ? 0 : mx.getActiveConnections();
+		}
+	}
+
+	public RoteamentoDataSource(HikariDataSource primario, List<HikariDataSource> replicas,
+			long atrasoMaximoS, MeterRegistry meterRegistry) {
+		this.primario = primario;
+		this.replicas = new ArrayList<>();
+		for (HikariDataSource replica : replicas) this.replicas.add(new Replica(replica));
+		this.atrasoMaximoS = atrasoMaximoS;
+
+		conexoesPrimario = Counter.builder("datasource.conexoes").tag("destino", "primario").register(meterRegistry);
+		conexoesReplica = Counter.builder("datasource.conexoes").tag("destino", "replica").register(meterRegistry);
+		fallbacks = Counter.builder("datasource.conexoes").tag("destino", "fallback").register(meterRegistry);
+		for (Replica replica : this.replicas) {
+			Gauge.builder("datasource.replica.saudavel", replica, r -> r.saudavel ? 1 : 0)
+					.tag("pool", replica.dataSource.getPoolName())
+					.register(meterRegistry);
+		}
+	}
+
+	/**
+	 * Executa a ação lendo do primário mesmo em transações somente leitura (ex.: carga de estado
+	 * em memória que depois é mantido pelas gravações e não pode partir de uma réplica atrasada).
+	 */
+	public static <T> T noPrimario(Supplier<T> acao) {
+		Boolean anterior = forcarPrimario.get();
+		forcarPrimario.set(Boolean.TRUE);
+		try {
+			return acao.get();
+		} finally {
+			if (anterior == null) forcarPrimario.remove();
+			else forcarPrimario.set(anterior);
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (!leituraEmReplica()) {
+			conexoesPrimario.increment();
+			return primario.getConnection();
+		}
+
+		Connection conexao = conexaoReplica();
+		if (conexao != null) {
+			conexoesReplica.increment();
+			return conexao;
+		}
+		fallbacks.increment();
+		return primario.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String usuario, String senha) throws SQLException {
+		// Como o HikariDataSource: credenciais vêm da configuração dos pools
+		throw new SQLFeatureNotSupportedException("Credenciais vêm da configuração dos pools");
+	}
+
+	private boolean leituraEmReplica() {
+		return !replicas.isEmpty() && forcarPrimario.get() == null
+				&& TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	private Connection conexaoReplica() {
+		int n = replicas.size();
+		int inicio = Math.floorMod(rodizio.getAndIncrement(), n);
+
+		// Tenta as saudáveis da menos ocupada para a mais ocupada; a que falhar sai do rodízio
+		boolean[] tentada = new boolean[n];
+		for (int tentativa = 0; tentativa < n; tentativa++) {
+			int escolhida = -1;
+			int menosAtivas = Integer.MAX_VALUE;
+			for (int k = 0; k < n; k++) {
+				int i = (inicio + k) % n;
+				Replica r = replicas.get(i);
+				if (tentada[i] || !r.saudavel) continue;
+				int ativas = r.ativas();
+				if (ativas < menosAtivas) {
+					menosAtivas = ativas;
+					escolhida = i;
+				}
+			}
+			if (escolhida < 0) return null;
+
+			tentada[escolhida] = true;
+			Replica replica = replicas.get(escolhida);
+			try {
+				return replica.dataSource.getConnection();
+			} catch (SQLException e) {
+				marcar(replica, false, e.getMessage());
+			}
+		}
+		return null;
+	}
+
+	@Scheduled(fixedDelayString = "${datasource.replicas.verificar-ms:5000}")
+	public void verificar() {
+		for (Replica replica : replicas) {
+			try (Connection conexao = replica.dataSource.getConnection()) {
+				if (!conexao.isValid(2)) {
+					marcar(replica, false, "conexão inválida");
+					continue;
+				}
+				Long atraso = atrasoMaximoS > 0 ? atrasoReplicacao(conexao) : null;
+				if (atrasoMaximoS > 0 && (atraso == null || atraso > atrasoMaximoS)) {
+					marcar(replica, false, atraso == null ? "replicação parada" : "atraso de " + atraso + " s");
+				} else {
+					marcar(replica, true, null);
+				}
+			} catch (SQLException e) {
+				marcar(replica, false, e.getMessage());
+			}
+		}
+	}
+
+	// Seconds_Behind_Source do MySQL 8.0.22+ (null com a replicação parada)
+	private static Long atrasoReplicacao(Connection conexao) throws SQLException {
+		try (Statement st = conexao.createStatement(); ResultSet rs = st.executeQuery("SHOW REPLICA STATUS")) {
+			if (!rs.next()) return null;
+			long atraso = rs.getLong("Seconds_Behind_Source");
+			return rs.wasNull() ? null : atraso;
+		}
+	}
+
+	private void marcar(Replica replica, boolean saudavel, String motivo) {
+		if (replica.saudavel != saudavel) {
+			if (saudavel) log.info("Réplica {} de volta ao rodízio", replica.dataSource.getPoolName());
+			else log.warn("Réplica {} fora do rodízio: {}", replica.dataSource.getPoolName(), motivo);
+		}
+		replica.motivo = motivo;
+		replica.saudavel = saudavel;
+	}
+
+	public HikariDataSource getPrimario() {
+		return primario;
+	}
+
+	public List<Map<String, Object>> estado() {
+		List<Map<String, Object>> resultado = new ArrayList<>();
+		for (Replica replica : replicas) {
+			Map<String, Object> item = new LinkedHashMap<>();
+			item.put("pool", replica.dataSource.getPoolName());
+			item.put("saudavel", replica.saudavel);
+			item.put("motivo", replica.motivo);
+			item.put("ativas", replica.ativas());
+			resultado.add(item);
+		}
+		return resultado;
+	}
+
+	@Override
+	public void close() {
+		replicas.forEach(replica -> replica.dataSource.close());
+	}
+}
@@ -3,9 +3,11 @@ package com.empresa.aplicacao.config;
 import com.empresa.aplicacao.security.JwtFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -32,18 +34,22 @@ public class SecurityConfig {
 						// ✅ Libera autenticação Google (sem exigir JWT)
 						.requestMatchers("/auth/**").permitAll()
 
-						// ✅ Libera os endpoints da aplicação durante o desenvolvimento
-						.requestMatchers("/api/**").permitAll()
+						// 🔒 Os dados da aplicação são separados por usuário (tenant = e-mail do JWT)
+						.requestMatchers("/api/**").authenticated()
+
+						// 🔒 Actuator: só health e info são públicos; métricas expõem tempos por rota,
+						// estatísticas do cache de JWT e estado dos pools
+						.requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+						.requestMatchers("/actuator/**").authenticated()
 
 						// (opcional) mantenha essas linhas para permitir rotas públicas futuras
 						.requestMatchers("/public/**").permitAll()
 
-						// 🔒 Caso queira exigir JWT em rotas específicas no futuro
-						// .requestMatchers("/api/financeiro/**").authenticated()
-
 						// ✅ Tudo o resto é liberado (útil em ambiente dev)
 						.anyRequest().permitAll()
 				)
+				// ✅ Sem token (ou sem tenant): 401, e não o 403 padrão
+				.exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
 				.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
 
 		return http.build();
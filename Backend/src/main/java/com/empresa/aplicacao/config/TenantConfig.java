@@ -0,0 +1,16 @@
+package com.empresa.aplicacao.config;
+
+import com.empresa.aplicacao.tenant.TenantResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TenantConfig {
+
+	// ✅ Tenant das sessões do Hibernate (coluna tenant_id das entidades com @TenantId)
+	@Bean
+	public HibernatePropertiesCustomizer tenantHibernate() {
+		return propriedades -> propriedades.put("hibernate.tenant_identifier_resolver", new TenantResolver());
+	}
+}
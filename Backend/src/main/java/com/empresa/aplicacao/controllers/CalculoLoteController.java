@@ -0,0 +1,111 @@
+package com.empresa.aplicacao.controllers;
+
+import com.empresa.aplicacao.dto.ColunasEstoque;
+import com.empresa.aplicacao.dto.ColunasProdutividade;
+import com.empresa.aplicacao.services.CalculoLoteService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Cálculos em lote, em colunas, para grades de cenários (SKU × parâmetros).
+ *
+ * JSON: objeto com um vetor por coluna (ver ColunasEstoque / ColunasProdutividade).
+ * Binário (application/octet-stream): int32 com a quantidade n, seguido das colunas na ordem
+ * do record, cada uma com n doubles (big-endian). A resposta usa o mesmo formato.
+ */
+@RestController
+@RequestMapping("/api/calculos/lote")
+@CrossOrigin(origins = "http://localhost:5177")
+public class CalculoLoteController {
+
+    @Autowired
+    private CalculoLoteService calculoLoteService;
+
+    // 🔹 Lote Econômico + Custo de Estoque (JSON)
+    @PostMapping(value = "/estoque", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ColunasEstoque.Resultado calcularEstoque(@RequestBody ColunasEstoque colunas) {
+        return calculoLoteService.calcularEstoque(colunas);
+    }
+
+    // 🔹 Lote Econômico + Custo de Estoque (binário: demanda, custoPedido, custoManutencao, le)
+    @PostMapping(value = "/estoque", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] calcularEstoqueBinario(HttpServletRequest request) throws IOException {
+        double[][] c = lerColunas(request, 4);
+        ColunasEstoque.Resultado r = calculoLoteService.calcularEstoque(new ColunasEstoque(c[0], c[1], c[2], c[3]));
+        return escreverColunas(r.loteEconomico(), r.custoEstoque());
+    }
+
+    // 🔹 Produtividade (JSON)
+    @PostMapping(value = "/produtividade", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ColunasProdutividade.Resultado calcularProdutividade(@RequestBody ColunasProdutividade colunas) {
+        return calculoLoteService.calcularProdutividade(colunas);
+    }
+
+    // 🔹 Produtividade (binário, colunas na ordem de ColunasProdutividade)
+    @PostMapping(value = "/produtividade", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] calcularProdutividadeBinario(HttpServletRequest request) throws IOException {
+        double[][] c = lerColunas(request, 7);
+        ColunasProdutividade.Resultado r = calculoLoteService.calcularProdutividade(
+                new ColunasProdutividade(c[0], c[1], c[2], c[3], c[4], c[5], c[6]));
+        return escreverColunas(r.produtividadeFisica(), r.produtividadeValor(), r.custoTotalProducao(),
+                r.custoUnitario(), r.custoTrabalho(), r.custoMaquinas(), r.custoMateriaPrima());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> loteInvalido(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("❌ Lote inválido: " + e.getMessage());
+    }
+
+    private double[][] lerColunas(HttpServletRequest request, int quantidade) throws IOException {
+        DataInputStream entrada = new DataInputStream(request.getInputStream());
+        int n;
+        try {
+            n = entrada.readInt();
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("corpo vazio");
+        }
+        if (n < 0 || n > calculoLoteService.getMaxItens()) {
+            throw new IllegalArgumentException("quantidade fora do limite: " + n);
+        }
+        // Tamanho declarado confere com o corpo antes de alocar as colunas
+        long esperado = Integer.BYTES + (long) quantidade * n * Double.BYTES;
+        long recebido = request.getContentLengthLong();
+        if (recebido >= 0 && recebido != esperado) {
+            throw new IllegalArgumentException("corpo de " + recebido + " bytes; esperado " + esperado
+                    + " para " + quantidade + " colunas de " + n + " itens");
+        }
+
+        // Sem Content-Length (chunked): cada coluna só é alocada depois de lida
+        double[][] colunas = new double[quantidade][];
+        for (int i = 0; i < quantidade; i++) {
+            byte[] bytes = entrada.readNBytes(n * Double.BYTES);
+            if (bytes.length != n * Double.BYTES) {
+                throw new IllegalArgumentException("corpo menor que " + quantidade + " colunas de " + n + " itens");
+            }
+            colunas[i] = new double[n];
+            ByteBuffer.wrap(bytes).asDoubleBuffer().get(colunas[i]);
+        }
+        return colunas;
+    }
+
+    private static byte[] escreverColunas(double[]... colunas) {
+        int n = colunas.length == 0 ? 0 : colunas[0].length;
+        ByteBuffer saida = ByteBuffer.allocate(Integer.BYTES + colunas.length * n * Double.BYTES);
+        saida.putInt(n);
+        for (double[] coluna : colunas) {
+            saida.asDoubleBuffer().put(coluna);
+            saida.position(saida.position() + n * Double.BYTES);
+        }
+        return saida.array();
+    }
+}
@@ -1,10 +1,30 @@
 package com.empresa.aplicacao.controllers;
 
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.dto.Pagina;
+import com.empresa.aplicacao.dto.RelatorioLote;
+import com.empresa.aplicacao.eventos.EntradaEvento;
+import com.empresa.aplicacao.eventos.TipoEvento;
 import com.empresa.aplicacao.models.Entrada;
 import com.empresa.aplicacao.repositories.EntradaRepository;
+import com.empresa.aplicacao.services.IndicadoresIncrementais;
+import com.empresa.aplicacao.services.IngestaoLoteService;
+import com.empresa.aplicacao.services.LedgerEventos;
+import com.empresa.aplicacao.services.NdjsonExportador;
+import com.empresa.aplicacao.services.ProdutoCatalogo;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,21 +35,93 @@ public class EntradaController {
     @Autowired
     private EntradaRepository entradaRepository;
 
+    @Autowired
+    private ProdutoCatalogo produtoCatalogo;
+
+    @Autowired
+    private IndicadoresIncrementais indicadores;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private LedgerEventos ledgerEventos;
+
+    @Autowired
+    private NdjsonExportador ndjsonExportador;
+
+    @Autowired
+    private IngestaoLoteService ingestaoLoteService;
+
+    @Value("${listagem.limite-maximo:1000}")
+    private int limiteMaximo;
+
     // Listar todas as entradas
     @GetMapping
     public List<Entrada> listar() {
         return entradaRepository.findAll();
     }
 
+    // Listar entradas paginadas por cursor (id da última entrada recebida)
+    @GetMapping("/pagina")
+    public Pagina<Entrada> listarPagina(@RequestParam(defaultValue = "0") long cursor,
+                                        @RequestParam(defaultValue = "100") int limite,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                        @RequestParam(required = false) String produto,
+                                        @RequestParam(required = false) String fornecedor) {
+        int tamanho = Math.max(1, Math.min(limite, limiteMaximo));
+        List<Entrada> itens = entradaRepository.buscarPagina(cursor, de, ate, produtoCatalogo.idParaFiltro(produto), fornecedor,
+                Limit.of(tamanho));
+        return Pagina.de(itens, tamanho, Entrada::getId);
+    }
+
+    // Exportar entradas em NDJSON, lidas do banco em streaming
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                          @RequestParam(required = false) String produto,
+                                                          @RequestParam(required = false) String fornecedor) {
+        Integer produtoId = produtoCatalogo.idParaFiltro(produto);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExportador.exportar(() -> entradaRepository.streamFiltrado(de, ate, produtoId, fornecedor)));
+    }
+
     // Criar nova entrada
     @PostMapping
     public Entrada criarEntrada(@RequestBody Entrada entradas) {
-        return entradaRepository.save(entradas);
+        entradas.setProdutoId(produtoCatalogo.obterOuCriar(entradas.getProduto()));
+        return indicadores.comEscrita(() -> {
+            Entrada nova = ledgerEventos.emTransacao(() -> {
+                Entrada salva = entradaRepository.save(entradas);
+                ledgerEventos.registrar(salva, TipoEvento.CRIACAO);
+                return salva;
+            });
+            eventos.publishEvent(new EntradaEvento(TipoEvento.CRIACAO, nova));
+            return nova;
+        });
+    }
+
+    // Importar entradas em lote (CSV com cabeçalho ou NDJSON), com relatório de erros por linha
+    @PostMapping(value = "/lote", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public RelatorioLote importarLote(HttpServletRequest request) throws IOException {
+        return ingestaoLoteService.importarEntradas(request.getInputStream(), request.getContentType());
     }
 
     // Apagar entrada por id
     @DeleteMapping("/{id}")
     public void apagar(@PathVariable Long id) {
-        entradaRepository.deleteById(id);
+        // Busca no primário: numa réplica atrasada uma entrada recém-criada ainda não existiria
+        indicadores.comEscrita(() -> RoteamentoDataSource.noPrimario(() -> entradaRepository.findById(id)).ifPresent(entrada -> {
+            // Só quem apagou a linha publica a remoção: duas remoções concorrentes não descontam duas vezes
+            int apagadas = ledgerEventos.emTransacao(() -> {
+                int linhas = entradaRepository.apagarPorId(id, entrada.getTenantId());
+                // O log é append-only: uma remoção duplicada descontaria o registro duas vezes na reprodução
+                if (linhas == 1) ledgerEventos.registrar(entrada, TipoEvento.REMOCAO);
+                return linhas;
+            });
+            if (apagadas == 1) eventos.publishEvent(new EntradaEvento(TipoEvento.REMOCAO, entrada));
+        }));
     }
 }
@@ -1,15 +1,42 @@
 package com.empresa.aplicacao.controllers;
 
+import com.empresa.aplicacao.dto.GestaoAceita;
+import com.empresa.aplicacao.dto.IndicadoresEm;
+import com.empresa.aplicacao.dto.IndicadoresPeriodo;
+import com.empresa.aplicacao.dto.JobRecalculo;
+import com.empresa.aplicacao.dto.PaginaHistorico;
+import com.empresa.aplicacao.dto.SerieHistorico;
+import com.empresa.aplicacao.dto.SimulacaoRequisicao;
+import com.empresa.aplicacao.dto.SimulacaoResultado;
 import com.empresa.aplicacao.models.Gestao;
 import com.empresa.aplicacao.models.GestaoHistorico;
 import com.empresa.aplicacao.repositories.GestaoRepository;
 import com.empresa.aplicacao.repositories.GestaoHistoricoRepository;
-import com.empresa.aplicacao.services.CalculoService;
+import com.empresa.aplicacao.services.HistoricoRecalculoService;
+import com.empresa.aplicacao.services.HistoricoSerieService;
+import com.empresa.aplicacao.services.IndicadoresCache;
+import com.empresa.aplicacao.services.IndicadoresIncrementais;
+import com.empresa.aplicacao.services.LedgerEventos;
+import com.empresa.aplicacao.services.NdjsonExportador;
+import com.empresa.aplicacao.services.RollupDiarioService;
+import com.empresa.aplicacao.services.SimulacaoCaixaService;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -25,7 +52,34 @@ public class GestaoController {
     private GestaoHistoricoRepository gestaoHistoricoRepository;
 
     @Autowired
-    private CalculoService calculoService;
+    private IndicadoresIncrementais indicadores;
+
+    @Autowired
+    private IndicadoresCache indicadoresCache;
+
+    @Autowired
+    private NdjsonExportador ndjsonExportador;
+
+    @Autowired
+    private SimulacaoCaixaService simulacaoCaixaService;
+
+    @Autowired
+    private RollupDiarioService rollupDiarioService;
+
+    @Autowired
+    private HistoricoSerieService historicoSerieService;
+
+    @Autowired
+    private HistoricoRecalculoService historicoRecalculoService;
+
+    @Autowired
+    private LedgerEventos ledgerEventos;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${listagem.limite-maximo:1000}")
+    private int limiteMaximo;
 
     // 🔹 Listar todas as gestões
     @GetMapping
@@ -33,66 +87,147 @@ public class GestaoController {
         return gestaoRepository.findAll();
     }
 
-    // 🔹 Criar nova gestão (agora com histórico)
+    // 🔹 Criar nova gestão: o histórico é recalculado em segundo plano (acompanhar pelo job)
     @PostMapping
-    public Gestao criar(@RequestBody Gestao gestao) {
+    public ResponseEntity<GestaoAceita> criar(@RequestBody Gestao gestao) {
         // Salva a previsão no banco
         Gestao novaGestao = gestaoRepository.save(gestao);
+        indicadoresCache.invalidar();
 
-        double previsaoGastos = gestao.getPrevisaoGastos();
-
-        // Calcula os indicadores
-        double pmre = calculoService.calcularPMRE();
-        double pmrv = calculoService.calcularPMRV();
-        double pmpf = calculoService.calcularPMPF();
-
-        // Calcula ciclo e saldo mínimo (versão atualizada)
-        CalculoService.CaixaResult caixa = calculoService.calcularSaldoMinimoCaixa(previsaoGastos, pmre, pmrv, pmpf);
+        // Indicadores, ciclo e saldo mínimo são calculados e gravados no histórico pelo job
+        JobRecalculo job = historicoRecalculoService.solicitar(gestao.getPrevisaoGastos());
 
-        // Cria e salva no histórico
-        GestaoHistorico hist = new GestaoHistorico(LocalDate.now(), caixa.getCicloCaixa(), caixa.getSaldoMinimo());
-        gestaoHistoricoRepository.save(hist);
-
-        return novaGestao;
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/gestao/historico/jobs/" + job.id()))
+                .body(new GestaoAceita(novaGestao, job));
     }
 
     // 🔹 Apagar gestão pelo ID
     @DeleteMapping("/{id}")
     public void apagar(@PathVariable Long id) {
         gestaoRepository.deleteById(id);
+        indicadoresCache.invalidar();
+    }
+
+    // 🔹 Endpoint de cálculo (sem salvar histórico): JSON do cache, serializado uma vez por valor
+    @GetMapping(value = "/calculos", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] calcular() {
+        return indicadoresCache.atualJson();
     }
 
-    // 🔹 Endpoint de cálculo (sem salvar histórico)
-    @GetMapping("/calculos")
-    public Map<String, Double> calcular() {
-        double previsaoGastos = gestaoRepository.findAll().stream()
-                .findFirst()
-                .map(Gestao::getPrevisaoGastos)
-                .orElse(0.0);
+    // 🔹 Estatísticas do cache de indicadores (acertos, falhas, tempo de carga)
+    @GetMapping("/calculos/cache")
+    public Map<String, Object> estatisticasCache() {
+        return indicadoresCache.estatisticas();
+    }
 
-        double pmre = calculoService.calcularPMRE();
-        double pmrv = calculoService.calcularPMRV();
-        double pmpf = calculoService.calcularPMPF();
-        double cicloOperacional = pmre + pmrv;
-        double cicloCaixa = cicloOperacional - pmpf;
+    // 🔹 Simulação Monte Carlo do Saldo Mínimo de Caixa (percentis, histograma e tornado)
+    @PostMapping("/simulacao")
+    public SimulacaoResultado simular(@RequestBody SimulacaoRequisicao requisicao) {
+        return simulacaoCaixaService.simular(requisicao, parcial -> {});
+    }
 
-        CalculoService.CaixaResult caixa = calculoService.calcularSaldoMinimoCaixa(previsaoGastos, pmre, pmrv, pmpf);
+    // 🔹 Mesma simulação em NDJSON: um resultado parcial por rodada e o resultado final
+    @PostMapping("/simulacao/stream")
+    public ResponseEntity<StreamingResponseBody> simularStream(@RequestBody SimulacaoRequisicao requisicao) {
+        SimulacaoRequisicao req = simulacaoCaixaService.validar(requisicao);
+        // O corpo é escrito em outra thread: simula com os dados do tenant da requisição
+        String tenant = TenantContexto.atual();
+        StreamingResponseBody corpo = saida -> TenantContexto.executar(tenant, () -> simulacaoCaixaService.simular(req, resultado -> {
+            try {
+                saida.write(objectMapper.writeValueAsBytes(resultado));
+                saida.write('\n');
+                saida.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
 
-        Map<String, Double> resultado = new HashMap<>();
-        resultado.put("pmre", pmre);
-        resultado.put("pmrv", pmrv);
-        resultado.put("pmpf", pmpf);
-        resultado.put("cicloOperacional", cicloOperacional);
-        resultado.put("cicloCaixa", cicloCaixa);
-        resultado.put("saldoMinimo", caixa.getSaldoMinimo());
+    // 🔹 Reconstruir os acumuladores dos indicadores a partir do banco
+    @PostMapping("/indicadores/reconstruir")
+    public IndicadoresIncrementais.Totais reconstruirIndicadores() {
+        IndicadoresIncrementais.Totais totais = indicadores.reconstruir();
+        indicadoresCache.invalidar();
+        return totais;
+    }
 
-        return resultado;
+    // 🔹 Indicadores por período (rollups diários), agrupados por dia/mes, produto e fornecedor/cliente
+    @GetMapping("/indicadores/periodo")
+    public List<IndicadoresPeriodo> indicadoresPorPeriodo(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                          @RequestParam(required = false) String agrupar,
+                                                          @RequestParam(required = false) String produto,
+                                                          @RequestParam(required = false) String fornecedor,
+                                                          @RequestParam(required = false) String cliente) {
+        return rollupDiarioService.consultar(de, ate, agrupar, produto, fornecedor, cliente);
     }
 
-    // 🔹 Listar histórico
+    // 🔹 Recriar os rollups diários a partir de Entradas e Vendas
+    @PostMapping("/indicadores/periodo/reconstruir")
+    public void reconstruirRollups() {
+        rollupDiarioService.reconstruir();
+    }
+
+    // 🔹 Indicadores como estavam ao fim de uma data (reprodução do log de eventos do ledger)
+    @GetMapping("/indicadores/em")
+    public IndicadoresEm indicadoresEm(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        return ledgerEventos.indicadoresEm(data);
+    }
+
+    // 🔹 Listar histórico (últimos listagem.limite-maximo itens, em ordem de data)
     @GetMapping("/historico")
     public List<GestaoHistorico> listarHistorico() {
-        return gestaoHistoricoRepository.findAll();
+        List<GestaoHistorico> itens = new ArrayList<>(gestaoHistoricoRepository.buscarUltimos(Limit.of(limiteMaximo)));
+        Collections.reverse(itens);
+        return itens;
+    }
+
+    // 🔹 Situação de um recálculo do histórico
+    @GetMapping("/historico/jobs/{id}")
+    public ResponseEntity<JobRecalculo> statusRecalculo(@PathVariable String id) {
+        JobRecalculo job = historicoRecalculoService.consultar(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    // 🔹 Série do histórico por período, reduzida a no máximo "pontos" (minmaxavg ou lttb)
+    @GetMapping("/historico/serie")
+    public SerieHistorico serieHistorico(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                         @RequestParam(defaultValue = "500") int pontos,
+                                         @RequestParam(defaultValue = "minmaxavg") String metodo,
+                                         @RequestParam(defaultValue = "saldoMinimo") String campo) {
+        return historicoSerieService.consultar(de, ate, pontos, metodo, campo);
+    }
+
+    // 🔹 Compactar agora os pontos antigos do histórico (também roda em historico.compactacao.cron)
+    @PostMapping("/historico/compactar")
+    public HistoricoSerieService.Compactacao compactarHistorico() {
+        return historicoSerieService.compactar();
+    }
+
+    // 🔹 Listar histórico paginado por cursor (data e id do último item recebido)
+    @GetMapping("/historico/pagina")
+    public PaginaHistorico listarHistoricoPagina(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataCursor,
+                                                 @RequestParam(defaultValue = "0") long cursor,
+                                                 @RequestParam(defaultValue = "100") int limite,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        int tamanho = Math.max(1, Math.min(limite, limiteMaximo));
+        List<GestaoHistorico> itens = dataCursor == null
+                ? gestaoHistoricoRepository.buscarPrimeiraPagina(de, ate, Limit.of(tamanho))
+                : gestaoHistoricoRepository.buscarPagina(dataCursor, cursor, de, ate, Limit.of(tamanho));
+        return PaginaHistorico.de(itens, tamanho);
+    }
+
+    // 🔹 Exportar histórico em NDJSON, lido do banco em streaming
+    @GetMapping("/historico/stream")
+    public ResponseEntity<StreamingResponseBody> exportarHistorico(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExportador.exportar(() -> gestaoHistoricoRepository.streamFiltrado(de, ate)));
     }
 
     // 🔹 Apagar item do histórico
@@ -100,4 +235,9 @@ public class GestaoController {
     public void apagarHistorico(@PathVariable Long id) {
         gestaoHistoricoRepository.deleteById(id);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> requisicaoInvalida(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+    }
 }
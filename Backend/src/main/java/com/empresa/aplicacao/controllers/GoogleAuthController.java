@@ -3,15 +3,11 @@ package com.empresa.aplicacao.controllers;
 import com.empresa.aplicacao.security.JwtUtil;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
-import java.util.Collections;
 import java.util.Map;
 
 @RestController
@@ -19,12 +15,11 @@ import java.util.Map;
 public class GoogleAuthController {
 
     private final JwtUtil jwtUtil;
+    private final GoogleIdTokenVerifier verifier;
 
-    @Value("${google.clientId}")
-    private String clientId;
-
-    public GoogleAuthController(JwtUtil jwtUtil) {
+    public GoogleAuthController(JwtUtil jwtUtil, GoogleIdTokenVerifier verifier) {
         this.jwtUtil = jwtUtil;
+        this.verifier = verifier;
     }
 
     @PostMapping("/google")
@@ -36,11 +31,6 @@ public class GoogleAuthController {
             return ResponseEntity.badRequest().body(Map.of("erro", "Token Google ausente"));
         }
 
-        var verifier = new GoogleIdTokenVerifier.Builder(
-                GoogleNetHttpTransport.newTrustedTransport(),
-                JacksonFactory.getDefaultInstance()
-        ).setAudience(Collections.singletonList(clientId)).build();
-
         GoogleIdToken idToken = verifier.verify(tokenId);
         if (idToken == null) {
             return ResponseEntity.status(401).body(Map.of("erro", "Token Google inválido"));
@@ -59,4 +49,13 @@ public class GoogleAuthController {
                 "nome", nome
         ));
     }
+
+    // 🔹 Revoga o JWT enviado no cabeçalho Authorization
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwtUtil.revogar(authHeader.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,74 @@
+package com.empresa.aplicacao.controllers;
+
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.security.JwtUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sistema")
+@CrossOrigin(origins = "http://localhost:5177")
+public class SistemaController {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectProvider<RoteamentoDataSource> roteamento;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // 🔹 Modo de execução (virtual threads), ocupação do pool de conexões e saúde das réplicas
+    @GetMapping("/execucao")
+    public Map<String, Object> execucao() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("virtualThreads", virtualThreads);
+        resultado.put("threadRequisicao", Thread.currentThread().toString());
+        resultado.put("processadores", Runtime.getRuntime().availableProcessors());
+
+        RoteamentoDataSource replicas = roteamento.getIfAvailable();
+        DataSource principal = replicas != null ? replicas.getPrimario() : dataSource;
+        if (principal instanceof HikariDataSource hikari) {
+            resultado.put("pool", pool(hikari));
+        }
+        if (replicas != null) {
+            resultado.put("replicas", replicas.estado());
+        }
+        return resultado;
+    }
+
+    // 🔹 Estatísticas do cache de tokens JWT validados
+    @GetMapping("/jwt/cache")
+    public Map<String, Object> estatisticasJwt() {
+        return jwtUtil.estatisticas();
+    }
+
+    private static Map<String, Object> pool(HikariDataSource hikari) {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("nome", hikari.getPoolName());
+        pool.put("tamanhoMaximo", hikari.getMaximumPoolSize());
+        pool.put("minimoOcioso", hikari.getMinimumIdle());
+        pool.put("timeoutConexaoMs", hikari.getConnectionTimeout());
+
+        HikariPoolMXBean mx = hikari.getHikariPoolMXBean();
+        if (mx != null) {
+            pool.put("ativas", mx.getActiveConnections());
+            pool.put("ociosas", mx.getIdleConnections());
+            pool.put("total", mx.getTotalConnections());
+            pool.put("aguardando", mx.getThreadsAwaitingConnection());
+        }
+        return pool;
+    }
+}
@@ -1,13 +1,31 @@
 package com.empresa.aplicacao.controllers;
 
-import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.dto.Pagina;
+import com.empresa.aplicacao.dto.RelatorioLote;
+import com.empresa.aplicacao.eventos.TipoEvento;
+import com.empresa.aplicacao.eventos.VendaEvento;
 import com.empresa.aplicacao.models.Venda;
-import com.empresa.aplicacao.repositories.EntradaRepository;
 import com.empresa.aplicacao.repositories.VendaRepository;
+import com.empresa.aplicacao.services.IndicadoresIncrementais;
+import com.empresa.aplicacao.services.IngestaoLoteService;
+import com.empresa.aplicacao.services.LedgerEventos;
+import com.empresa.aplicacao.services.NdjsonExportador;
+import com.empresa.aplicacao.services.ProdutoCatalogo;
+import com.empresa.aplicacao.services.ProdutoRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -19,7 +37,28 @@ public class VendaController {
     private VendaRepository vendaRepository;
 
     @Autowired
-    private EntradaRepository entradaRepository;
+    private ProdutoCatalogo produtoCatalogo;
+
+    @Autowired
+    private ProdutoRegistry produtoRegistry;
+
+    @Autowired
+    private IndicadoresIncrementais indicadores;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private LedgerEventos ledgerEventos;
+
+    @Autowired
+    private NdjsonExportador ndjsonExportador;
+
+    @Autowired
+    private IngestaoLoteService ingestaoLoteService;
+
+    @Value("${listagem.limite-maximo:1000}")
+    private int limiteMaximo;
 
     // 🔹 Listar todas as vendas
     @GetMapping
@@ -27,27 +66,75 @@ public class VendaController {
         return vendaRepository.findAll();
     }
 
+    // 🔹 Listar vendas paginadas por cursor (id da última venda recebida)
+    @GetMapping("/pagina")
+    public Pagina<Venda> listarPagina(@RequestParam(defaultValue = "0") long cursor,
+                                      @RequestParam(defaultValue = "100") int limite,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                      @RequestParam(required = false) String produto,
+                                      @RequestParam(required = false) String cliente) {
+        int tamanho = Math.max(1, Math.min(limite, limiteMaximo));
+        List<Venda> itens = vendaRepository.buscarPagina(cursor, de, ate, produtoCatalogo.idParaFiltro(produto), cliente,
+                Limit.of(tamanho));
+        return Pagina.de(itens, tamanho, Venda::getId);
+    }
+
+    // 🔹 Exportar vendas em NDJSON, lidas do banco em streaming
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                          @RequestParam(required = false) String produto,
+                                                          @RequestParam(required = false) String cliente) {
+        Integer produtoId = produtoCatalogo.idParaFiltro(produto);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExportador.exportar(() -> vendaRepository.streamFiltrado(de, ate, produtoId, cliente)));
+    }
+
     // 🔹 Criar nova venda (com validação de entrada existente)
     @PostMapping
     public ResponseEntity<?> criar(@RequestBody Venda venda) {
-        // Verifica se o produto existe na tabela de entradas
-        List<Entrada> entradas = entradaRepository.findAll();
-        boolean produtoExiste = entradas.stream()
-                .anyMatch(e -> e.getProduto().equalsIgnoreCase(venda.getProduto()));
-
-        if (!produtoExiste) {
+        // Verifica se o produto foi cadastrado em Entradas (catálogo + registro em memória, O(1))
+        Integer produtoId = produtoCatalogo.idDe(venda.getProduto());
+        if (!produtoRegistry.existe(produtoId)) {
             return ResponseEntity
                     .badRequest()
                     .body("❌ Não é possível vender este produto, pois ele não foi cadastrado em Entradas.");
         }
+        venda.setProdutoId(produtoId);
 
-        Venda novaVenda = vendaRepository.save(venda);
+        Venda novaVenda = indicadores.comEscrita(() -> {
+            Venda salva = ledgerEventos.emTransacao(() -> {
+                Venda nova = vendaRepository.save(venda);
+                ledgerEventos.registrar(nova, TipoEvento.CRIACAO);
+                return nova;
+            });
+            eventos.publishEvent(new VendaEvento(TipoEvento.CRIACAO, salva));
+            return salva;
+        });
         return ResponseEntity.ok(novaVenda);
     }
 
+    // 🔹 Importar vendas em lote (CSV com cabeçalho ou NDJSON), com relatório de erros por linha
+    @PostMapping(value = "/lote", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public RelatorioLote importarLote(HttpServletRequest request) throws IOException {
+        return ingestaoLoteService.importarVendas(request.getInputStream(), request.getContentType());
+    }
+
     // 🔹 Deletar venda
     @DeleteMapping("/{id}")
     public void deletar(@PathVariable Long id) {
-        vendaRepository.deleteById(id);
+        // Busca no primário: numa réplica atrasada uma venda recém-criada ainda não existiria
+        indicadores.comEscrita(() -> RoteamentoDataSource.noPrimario(() -> vendaRepository.findById(id)).ifPresent(venda -> {
+            // Só quem apagou a linha publica a remoção: duas remoções concorrentes não descontam duas vezes
+            int apagadas = ledgerEventos.emTransacao(() -> {
+                int linhas = vendaRepository.apagarPorId(id, venda.getTenantId());
+                // O log é append-only: uma remoção duplicada descontaria o registro duas vezes na reprodução
+                if (linhas == 1) ledgerEventos.registrar(venda, TipoEvento.REMOCAO);
+                return linhas;
+            });
+            if (apagadas == 1) eventos.publishEvent(new VendaEvento(TipoEvento.REMOCAO, venda));
+        }));
     }
 }
@@ -0,0 +1,11 @@
+package com.empresa.aplicacao.dto;
+
+/**
+ * Lote de cenários de estoque em colunas (posição i de cada vetor = cenário i).
+ * {@code le} é opcional: se ausente (ou &lt;= 0 na posição), o custo usa o lote econômico calculado.
+ */
+public record ColunasEstoque(double[] demanda, double[] custoPedido, double[] custoManutencao, double[] le) {
+
+    public record Resultado(double[] loteEconomico, double[] custoEstoque) {
+    }
+}
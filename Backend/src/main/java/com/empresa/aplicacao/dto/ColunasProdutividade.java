@@ -0,0 +1,22 @@
+package com.empresa.aplicacao.dto;
+
+/**
+ * Lote de cenários de produtividade em colunas (posição i de cada vetor = cenário i).
+ */
+public record ColunasProdutividade(double[] quantidadeProduzida,
+                                   double[] horasTrabalho,
+                                   double[] custoHoraTrabalho,
+                                   double[] horasMaquinas,
+                                   double[] custoHoraMaquina,
+                                   double[] quantidadeMateriaPrima,
+                                   double[] custoMateriaPrima) {
+
+    public record Resultado(double[] produtividadeFisica,
+                            double[] produtividadeValor,
+                            double[] custoTotalProducao,
+                            double[] custoUnitario,
+                            double[] custoTrabalho,
+                            double[] custoMaquinas,
+                            double[] custoMateriaPrima) {
+    }
+}
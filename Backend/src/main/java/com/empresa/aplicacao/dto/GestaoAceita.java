@@ -0,0 +1,9 @@
+package com.empresa.aplicacao.dto;
+
+import com.empresa.aplicacao.models.Gestao;
+
+/**
+ * Resposta do cadastro de previsão: a gestão salva e o recálculo do histórico agendado.
+ */
+public record GestaoAceita(Gestao gestao, JobRecalculo job) {
+}
@@ -0,0 +1,22 @@
+package com.empresa.aplicacao.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Indicadores como estavam ao fim de um dia, reproduzidos do log de eventos do ledger
+ * (ver LedgerEventos). O PMRE é a média de todos os pares entrada × venda do produto.
+ *
+ * @param ultimoEvento último evento do log incluído (0 = nenhum)
+ * @param eventosReproduzidos eventos aplicados sobre o snapshot usado como ponto de partida
+ */
+public record IndicadoresEm(LocalDate data,
+                            long ultimoEvento,
+                            long eventosReproduzidos,
+                            long qtdEntradas,
+                            long qtdVendas,
+                            double pmre,
+                            double pmrv,
+                            double pmpf,
+                            double cicloOperacional,
+                            double cicloCaixa) {
+}
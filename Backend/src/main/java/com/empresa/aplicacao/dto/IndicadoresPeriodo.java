@@ -0,0 +1,26 @@
+package com.empresa.aplicacao.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * Indicadores de um grupo (período e/ou produto, fornecedor ou cliente) calculados pelos
+ * rollups diários. O PMRE considera apenas os pares entrada × venda dentro do mesmo período.
+ *
+ * @param periodo primeiro dia do período (dia ou mês); ausente sem agrupamento por tempo
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IndicadoresPeriodo(LocalDate periodo,
+                                 Integer produtoId,
+                                 String produto,
+                                 String fornecedor,
+                                 String cliente,
+                                 long qtdEntradas,
+                                 long qtdVendas,
+                                 double pmre,
+                                 double pmrv,
+                                 double pmpf,
+                                 double cicloOperacional,
+                                 double cicloCaixa) {
+}
@@ -0,0 +1,35 @@
+package com.empresa.aplicacao.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Situação de um pedido de recálculo do histórico de gestão.
+ *
+ * @param historicoId registro de GestaoHistorico gravado pelo recálculo (quando concluído)
+ * @param agrupados   quantidade de pedidos atendidos pelo mesmo recálculo
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobRecalculo(String id,
+                           Status status,
+                           Instant solicitadoEm,
+                           Instant concluidoEm,
+                           Long historicoId,
+                           Integer agrupados,
+                           String erro) {
+
+    public enum Status { PENDENTE, EXECUTANDO, CONCLUIDO, FALHOU }
+
+    public JobRecalculo executando() {
+        return new JobRecalculo(id, Status.EXECUTANDO, solicitadoEm, null, null, null, null);
+    }
+
+    public JobRecalculo concluido(Long historicoId, int agrupados) {
+        return new JobRecalculo(id, Status.CONCLUIDO, solicitadoEm, Instant.now(), historicoId, agrupados, null);
+    }
+
+    public JobRecalculo falhou(String erro) {
+        return new JobRecalculo(id, Status.FALHOU, solicitadoEm, Instant.now(), null, null, erro);
+    }
+}
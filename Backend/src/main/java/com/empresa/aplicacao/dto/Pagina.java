@@ -0,0 +1,16 @@
+package com.empresa.aplicacao.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem paginada por cursor (keyset no id).
+ * proximoCursor é nulo quando não há mais registros.
+ */
+public record Pagina<T>(List<T> itens, Long proximoCursor) {
+
+    public static <T> Pagina<T> de(List<T> itens, int limite, Function<T, Long> id) {
+        Long proximo = itens.size() < limite ? null : id.apply(itens.get(itens.size() - 1));
+        return new Pagina<>(itens, proximo);
+    }
+}
@@ -0,0 +1,19 @@
+package com.empresa.aplicacao.dto;
+
+import com.empresa.aplicacao.models.GestaoHistorico;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Página do histórico paginada por cursor (keyset em dataCalculo, id).
+ * proximaData e proximoCursor são nulos quando não há mais registros.
+ */
+public record PaginaHistorico(List<GestaoHistorico> itens, LocalDate proximaData, Long proximoCursor) {
+
+    public static PaginaHistorico de(List<GestaoHistorico> itens, int limite) {
+        if (itens.size() < limite) return new PaginaHistorico(itens, null, null);
+        GestaoHistorico ultimo = itens.get(itens.size() - 1);
+        return new PaginaHistorico(itens, ultimo.getDataCalculo(), ultimo.getId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.empresa.aplicacao.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * Ponto de uma série do histórico. No método minmaxavg traz média, mínimo e máximo dos dois
+ * indicadores no balde; no lttb traz só o valor original do campo escolhido.
+ *
+ * @param pontos quantidade de registros originais representados pelo ponto
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PontoSerie(LocalDate data,
+                         Long pontos,
+                         Double cicloCaixa,
+                         Double cicloCaixaMin,
+                         Double cicloCaixaMax,
+                         Double saldoMinimo,
+                         Double saldoMinimoMin,
+                         Double saldoMinimoMax) {
+}
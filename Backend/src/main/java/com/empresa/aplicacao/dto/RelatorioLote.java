@@ -0,0 +1,13 @@
+package com.empresa.aplicacao.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação em lote: totais e erros por linha
+ * (limitados a ingestao.max-erros para não crescer sem limite).
+ */
+public record RelatorioLote(long recebidas, long inseridas, long rejeitadas, List<ErroLinha> erros) {
+
+    public record ErroLinha(long linha, String mensagem) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.empresa.aplicacao.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Série do histórico de gestão reduzida no servidor a no máximo o número de pontos pedido.
+ *
+ * @param registros quantidade de registros originais no período
+ */
+public record SerieHistorico(LocalDate de,
+                             LocalDate ate,
+                             String metodo,
+                             String campo,
+                             long registros,
+                             List<PontoSerie> pontos) {
+}
@@ -0,0 +1,14 @@
+package com.empresa.aplicacao.dto;
+
+/**
+ * Parâmetros da simulação Monte Carlo do Saldo Mínimo de Caixa. Campos nulos usam o padrão:
+ * 1.000.000 de cenários, semente aleatória, desvio de 10% nos gastos e 50 classes no histograma.
+ *
+ * @param desvioGastos desvio-padrão dos gastos anuais relativo à média (0,1 = 10%)
+ */
+public record SimulacaoRequisicao(Long cenarios,
+                                  Long semente,
+                                  Double gastosAnuais,
+                                  Double desvioGastos,
+                                  Integer classes) {
+}
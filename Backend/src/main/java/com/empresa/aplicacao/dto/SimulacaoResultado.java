@@ -0,0 +1,43 @@
+package com.empresa.aplicacao.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado (parcial ou final) da simulação do Saldo Mínimo de Caixa.
+ * Os resultados parciais não trazem histograma nem tornado.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SimulacaoResultado(boolean parcial,
+                                 long cenarios,
+                                 long total,
+                                 double media,
+                                 double desvio,
+                                 double minimo,
+                                 double maximo,
+                                 Map<String, Double> percentis,
+                                 List<Classe> histograma,
+                                 List<BarraTornado> tornado,
+                                 Distribuicoes distribuicoes) {
+
+    /**
+     * Normal com média e desvio-padrão ajustados aos dados.
+     */
+    public record Distribuicao(double media, double desvio) {
+    }
+
+    public record Distribuicoes(Distribuicao pmre, Distribuicao pmrv, Distribuicao pmpf, Distribuicao gastos) {
+    }
+
+    public record Classe(double de, double ate, long quantidade) {
+    }
+
+    /**
+     * Saldo mínimo com uma variável no percentil 10 e 90 (demais na média).
+     */
+    public record BarraTornado(String variavel, double valorBaixo, double valorAlto,
+                               double saldoBaixo, double saldoAlto) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.empresa.aplicacao.eventos;
+
+import com.empresa.aplicacao.models.Entrada;
+
+/**
+ * Publicado após uma entrada ser gravada ou removida do banco.
+ */
+public record EntradaEvento(TipoEvento tipo, Entrada entrada) {
+}
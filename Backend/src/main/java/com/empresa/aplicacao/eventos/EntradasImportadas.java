@@ -0,0 +1,11 @@
+package com.empresa.aplicacao.eventos;
+
+import com.empresa.aplicacao.models.Entrada;
+
+import java.util.List;
+
+/**
+ * Publicado uma vez por bloco da importação em lote, após o commit. Todas são criações.
+ */
+public record EntradasImportadas(String tenant, List<Entrada> entradas) {
+}
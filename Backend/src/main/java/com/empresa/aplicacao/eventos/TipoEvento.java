@@ -0,0 +1,6 @@
+package com.empresa.aplicacao.eventos;
+
+public enum TipoEvento {
+    CRIACAO,
+    REMOCAO
+}
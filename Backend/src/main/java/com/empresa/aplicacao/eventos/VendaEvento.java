@@ -0,0 +1,9 @@
+package com.empresa.aplicacao.eventos;
+
+import com.empresa.aplicacao.models.Venda;
+
+/**
+ * Publicado após uma venda ser gravada ou removida do banco.
+ */
+public record VendaEvento(TipoEvento tipo, Venda venda) {
+}
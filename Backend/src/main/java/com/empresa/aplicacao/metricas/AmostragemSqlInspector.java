@@ -0,0 +1,36 @@
+package com.empresa.aplicacao.metricas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Substitui o spring.jpa.show-sql: conta as consultas da requisição e registra no logger
+ * "sql" só uma amostra delas (sql.log.amostragem), com uri e texto como pares chave-valor.
+ */
+public class AmostragemSqlInspector implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger("sql");
+
+    private final double taxa;
+
+    public AmostragemSqlInspector(double taxa) {
+        this.taxa = taxa;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        TempoRequisicao.contarConsulta();
+        if (taxa > 0 && ThreadLocalRandom.current().nextDouble() < taxa && log.isInfoEnabled()) {
+            log.atInfo()
+                    .setMessage("sql amostrado: {}")
+                    .addArgument(sql)
+                    .addKeyValue("uri", TempoRequisicao.uriAtual())
+                    .addKeyValue("taxa", taxa)
+                    .log();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,63 @@
+package com.empresa.aplicacao.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mede as chamadas aos repositórios: quantidade de linhas devolvidas em listas
+ * (repositorio.linhas, por repositório e método) e tempo de banco da requisição atual.
+ * O tempo de cada chamada já é publicado pelo Spring Data (spring.data.repository.invocations).
+ * Chamadas ao JdbcTemplate (ledger, importação em lote, descarga do rollup) também contam
+ * como banco.
+ */
+@Aspect
+@Component
+public class RepositorioMetricasAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, String> nomes = new ConcurrentHashMap<>();
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object medir(ProceedingJoinPoint chamada) throws Throwable {
+        TempoRequisicao.entrarBanco();
+        try {
+            Object resultado = chamada.proceed();
+            if (resultado instanceof Collection<?> linhas) {
+                meterRegistry.summary("repositorio.linhas",
+                        "repositorio", nome(chamada.getThis()),
+                        "metodo", chamada.getSignature().getName()).record(linhas.size());
+            }
+            return resultado;
+        } finally {
+            TempoRequisicao.sairBanco();
+        }
+    }
+
+    @Around("execution(* org.springframework.jdbc.core.JdbcOperations+.*(..))")
+    public Object medirJdbc(ProceedingJoinPoint chamada) throws Throwable {
+        TempoRequisicao.entrarBanco();
+        try {
+            return chamada.proceed();
+        } finally {
+            TempoRequisicao.sairBanco();
+        }
+    }
+
+    private String nome(Object proxy) {
+        return nomes.computeIfAbsent(proxy.getClass(), c -> {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(proxy);
+            return interfaces.length == 0 ? c.getSimpleName() : interfaces[0].getSimpleName();
+        });
+    }
+}
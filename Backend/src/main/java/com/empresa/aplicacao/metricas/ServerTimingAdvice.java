@@ -0,0 +1,39 @@
+package com.empresa.aplicacao.metricas;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Marca o início da serialização da resposta e adiciona o cabeçalho Server-Timing com o
+ * tempo de banco e de cálculo (ainda dá tempo: o corpo não foi escrito).
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        TempoRequisicao tempo = TempoRequisicao.atual();
+        if (tempo != null) {
+            tempo.marcarSerializacao();
+            long agora = System.nanoTime();
+            response.getHeaders().add("Server-Timing", String.format(Locale.ROOT,
+                    "db;dur=%.2f;desc=\"%d consultas\", calculo;dur=%.2f",
+                    tempo.bancoNs / 1e6, tempo.consultas, tempo.calculoNs(agora) / 1e6));
+        }
+        return body;
+    }
+}
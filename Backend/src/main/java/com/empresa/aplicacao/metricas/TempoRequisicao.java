@@ -0,0 +1,74 @@
+package com.empresa.aplicacao.metricas;
+
+/**
+ * Tempos da requisição em andamento na thread atual: banco (chamadas aos repositórios),
+ * quantidade de consultas SQL e início da serialização da resposta.
+ * Fora de uma requisição (jobs, agendamentos) não há medição e as chamadas são ignoradas.
+ */
+public final class TempoRequisicao {
+
+    private static final ThreadLocal<TempoRequisicao> ATUAL = new ThreadLocal<>();
+
+    final long inicioNs = System.nanoTime();
+    final String uri;
+    long bancoNs;
+    int consultas;
+    long serializacaoNs;
+
+    // Chamadas aninhadas de repositório contam só uma vez
+    private int profundidade;
+    private long entradaBancoNs;
+
+    private TempoRequisicao(String uri) {
+        this.uri = uri;
+    }
+
+    static TempoRequisicao iniciar(String uri) {
+        TempoRequisicao t = new TempoRequisicao(uri);
+        ATUAL.set(t);
+        return t;
+    }
+
+    static void encerrar() {
+        ATUAL.remove();
+    }
+
+    static TempoRequisicao atual() {
+        return ATUAL.get();
+    }
+
+    static void entrarBanco() {
+        TempoRequisicao t = ATUAL.get();
+        if (t != null && t.profundidade++ == 0) t.entradaBancoNs = System.nanoTime();
+    }
+
+    static void sairBanco() {
+        TempoRequisicao t = ATUAL.get();
+        if (t != null && --t.profundidade == 0) t.bancoNs += System.nanoTime() - t.entradaBancoNs;
+    }
+
+    static void contarConsulta() {
+        TempoRequisicao t = ATUAL.get();
+        if (t != null) t.consultas++;
+    }
+
+    static String uriAtual() {
+        TempoRequisicao t = ATUAL.get();
+        return t == null ? null : t.uri;
+    }
+
+    /** Marca o início da serialização (primeira escrita do corpo). */
+    void marcarSerializacao() {
+        if (serializacaoNs == 0) serializacaoNs = System.nanoTime();
+    }
+
+    /** Tempo de cálculo: do início até a serialização (ou o fim), descontado o banco. */
+    long calculoNs(long fimNs) {
+        long ate = serializacaoNs != 0 ? serializacaoNs : fimNs;
+        return Math.max(0, ate - inicioNs - bancoNs);
+    }
+
+    long serializacaoNs(long fimNs) {
+        return serializacaoNs == 0 ? 0 : fimNs - serializacaoNs;
+    }
+}
@@ -0,0 +1,62 @@
+package com.empresa.aplicacao.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Divide o tempo de cada requisição da API em banco, cálculo e serialização e publica
+ * em requisicao.fase (tags fase e uri). Os dois primeiros também vão no cabeçalho
+ * Server-Timing (ver ServerTimingAdvice).
+ *
+ * Banco é o tempo dentro de chamadas a repositórios e ao JdbcTemplate (RepositorioMetricasAspect).
+ * Fica como cálculo o que o banco faz fora delas: linhas de um Stream lidas depois que o
+ * método do repositório retorna e o flush/commit de transações abertas pelo serviço.
+ */
+@Component
+public class TempoRequisicaoFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TempoRequisicao tempo = TempoRequisicao.iniciar(request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TempoRequisicao.encerrar();
+            long fim = System.nanoTime();
+
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = padrao == null ? "desconhecida" : padrao.toString();
+            registrar("banco", uri, tempo.bancoNs);
+            registrar("calculo", uri, tempo.calculoNs(fim));
+            registrar("serializacao", uri, tempo.serializacaoNs(fim));
+        }
+    }
+
+    private void registrar(String fase, String uri, long nanos) {
+        Timer.builder("requisicao.fase")
+                .tag("fase", fase)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
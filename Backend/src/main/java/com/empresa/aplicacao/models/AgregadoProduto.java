@@ -0,0 +1,42 @@
+package com.empresa.aplicacao.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Snapshot persistido dos acumuladores de um produto (ver IndicadoresIncrementais).
+ */
+@Entity
+@Table(name = "agregado_produto_catalogo")
+@IdClass(AgregadoProdutoId.class)
+public class AgregadoProduto {
+
+    @Id
+    @Column(name = "tenant_id", length = 254)
+    private String tenantId;
+
+    // Id do produto no catálogo (ver ProdutoCatalogo)
+    @Id
+    private Integer produtoId;
+    private long qtdEntradas;
+    private long somaDiasEntradas;
+    private long qtdVendas;
+    private long somaDiasVendas;
+
+    public AgregadoProduto() {}
+
+    public AgregadoProduto(String tenantId, Integer produtoId, long qtdEntradas, long somaDiasEntradas, long qtdVendas, long somaDiasVendas) {
+        this.tenantId = tenantId;
+        this.produtoId = produtoId;
+        this.qtdEntradas = qtdEntradas;
+        this.somaDiasEntradas = somaDiasEntradas;
+        this.qtdVendas = qtdVendas;
+        this.somaDiasVendas = somaDiasVendas;
+    }
+
+    public String getTenantId() { return tenantId; }
+    public Integer getProdutoId() { return produtoId; }
+    public long getQtdEntradas() { return qtdEntradas; }
+    public long getSomaDiasEntradas() { return somaDiasEntradas; }
+    public long getQtdVendas() { return qtdVendas; }
+    public long getSomaDiasVendas() { return somaDiasVendas; }
+}
@@ -0,0 +1,35 @@
+package com.empresa.aplicacao.models;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Chave do snapshot por produto: tenant e id do produto no catálogo.
+ */
+public class AgregadoProdutoId implements Serializable {
+
+    private String tenantId;
+    private Integer produtoId;
+
+    public AgregadoProdutoId() {}
+
+    public AgregadoProdutoId(String tenantId, Integer produtoId) {
+        this.tenantId = tenantId;
+        this.produtoId = produtoId;
+    }
+
+    public String getTenantId() { return tenantId; }
+    public Integer getProdutoId() { return produtoId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AgregadoProdutoId outro)) return false;
+        return Objects.equals(tenantId, outro.tenantId) && Objects.equals(produtoId, outro.produtoId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tenantId, produtoId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.empresa.aplicacao.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot persistido dos totais usados nos indicadores (uma linha por tenant).
+ */
+@Entity
+public class AgregadoTotais {
+
+    @Id
+    @Column(name = "tenant_id", length = 254)
+    private String tenantId;
+    private long qtdEntradas;
+    private long somaPrazoEntradas;
+    private long qtdVendas;
+    private long somaPrazoVendas;
+    private long somaDiasPares;
+    private long qtdPares;
+    private LocalDateTime atualizadoEm;
+
+    public AgregadoTotais() {}
+
+    public AgregadoTotais(String tenantId, long qtdEntradas, long somaPrazoEntradas, long qtdVendas, long somaPrazoVendas,
+                          long somaDiasPares, long qtdPares, LocalDateTime atualizadoEm) {
+        this.tenantId = tenantId;
+        this.qtdEntradas = qtdEntradas;
+        this.somaPrazoEntradas = somaPrazoEntradas;
+        this.qtdVendas = qtdVendas;
+        this.somaPrazoVendas = somaPrazoVendas;
+        this.somaDiasPares = somaDiasPares;
+        this.qtdPares = qtdPares;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public String getTenantId() { return tenantId; }
+    public long getQtdEntradas() { return qtdEntradas; }
+    public long getSomaPrazoEntradas() { return somaPrazoEntradas; }
+    public long getQtdVendas() { return qtdVendas; }
+    public long getSomaPrazoVendas() { return somaPrazoVendas; }
+    public long getSomaDiasPares() { return somaDiasPares; }
+    public long getQtdPares() { return qtdPares; }
+    public LocalDateTime getAtualizadoEm() { return atualizadoEm; }
+}
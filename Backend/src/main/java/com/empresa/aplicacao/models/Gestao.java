@@ -1,17 +1,29 @@
 package com.empresa.aplicacao.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
 
 @Entity
+@Table(indexes = @Index(name = "idx_gestao_tenant", columnList = "tenant_id"))
 public class Gestao {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    // Preenchido pelo Hibernate com o tenant da sessão (ver TenantContexto)
+    @JsonIgnore
+    @TenantId
+    @Column(name = "tenant_id", length = 254, nullable = false, updatable = false)
+    private String tenantId;
+
     private double previsaoGastos;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public String getTenantId() { return tenantId; }
+
     public double getPrevisaoGastos() { return previsaoGastos; }
     public void setPrevisaoGastos(double previsaoGastos) { this.previsaoGastos = previsaoGastos; }
 }
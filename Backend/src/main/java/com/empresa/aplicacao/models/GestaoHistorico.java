@@ -1,19 +1,35 @@
 package com.empresa.aplicacao.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = @Index(name = "idx_historico_tenant_data", columnList = "tenant_id, data_calculo"))
 public class GestaoHistorico {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Preenchido pelo Hibernate com o tenant da sessão (ver TenantContexto)
+    @JsonIgnore
+    @TenantId
+    @Column(name = "tenant_id", length = 254, nullable = false, updatable = false)
+    private String tenantId;
+
     private LocalDate dataCalculo;
     private double cicloCaixa;
     private double saldoMinimo;
 
+    // Preenchidos só em pontos compactados (ver HistoricoSerieService); nulos = ponto original
+    private Integer pontos;
+    private Double cicloCaixaMin;
+    private Double cicloCaixaMax;
+    private Double saldoMinimoMin;
+    private Double saldoMinimoMax;
+
     public GestaoHistorico() {}
 
     public GestaoHistorico(LocalDate dataCalculo, double cicloCaixa, double saldoMinimo) {
@@ -22,11 +38,29 @@ public class GestaoHistorico {
         this.saldoMinimo = saldoMinimo;
     }
 
+    public GestaoHistorico(LocalDate dataCalculo, int pontos,
+                           double cicloCaixa, double cicloCaixaMin, double cicloCaixaMax,
+                           double saldoMinimo, double saldoMinimoMin, double saldoMinimoMax) {
+        this(dataCalculo, cicloCaixa, saldoMinimo);
+        this.pontos = pontos;
+        this.cicloCaixaMin = cicloCaixaMin;
+        this.cicloCaixaMax = cicloCaixaMax;
+        this.saldoMinimoMin = saldoMinimoMin;
+        this.saldoMinimoMax = saldoMinimoMax;
+    }
+
     public Long getId() { return id; }
+    public String getTenantId() { return tenantId; }
     public LocalDate getDataCalculo() { return dataCalculo; }
     public void setDataCalculo(LocalDate dataCalculo) { this.dataCalculo = dataCalculo; }
     public double getCicloCaixa() { return cicloCaixa; }
     public void setCicloCaixa(double cicloCaixa) { this.cicloCaixa = cicloCaixa; }
     public double getSaldoMinimo() { return saldoMinimo; }
     public void setSaldoMinimo(double saldoMinimo) { this.saldoMinimo = saldoMinimo; }
+
+    public int getPontos() { return pontos == null ? 1 : pontos; }
+    public double getCicloCaixaMin() { return cicloCaixaMin == null ? cicloCaixa : cicloCaixaMin; }
+    public double getCicloCaixaMax() { return cicloCaixaMax == null ? cicloCaixa : cicloCaixaMax; }
+    public double getSaldoMinimoMin() { return saldoMinimoMin == null ? saldoMinimo : saldoMinimoMin; }
+    public double getSaldoMinimoMax() { return saldoMinimoMax == null ? saldoMinimo : saldoMinimoMax; }
 }
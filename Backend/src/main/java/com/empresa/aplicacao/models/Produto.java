@@ -0,0 +1,41 @@
+package com.empresa.aplicacao.models;
+
+import jakarta.persistence.*;
+import java.util.Locale;
+
+/**
+ * Catálogo de produtos: cada nome (sem diferenciar maiúsculas/minúsculas) recebe um id
+ * inteiro, referenciado por Entrada e Venda (coluna produto_id).
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_produto_chave", columnNames = "chave"))
+public class Produto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Nome canônico (grafia do primeiro cadastro)
+    private String nome;
+
+    // Nome normalizado, único
+    private String chave;
+
+    public Produto() {}
+
+    public Produto(String nome) {
+        this.nome = nome;
+        this.chave = chave(nome);
+    }
+
+    public Integer getId() { return id; }
+    public String getNome() { return nome; }
+    public String getChave() { return chave; }
+
+    /**
+     * Chave normalizada do produto (comparação sem diferenciar maiúsculas/minúsculas).
+     */
+    public static String chave(String produto) {
+        return produto == null ? null : produto.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,30 @@
+package com.empresa.aplicacao.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Totais diários de entradas ou vendas por produto e contraparte (ver RollupDiarioService).
+ * Mantido de forma incremental a cada gravação/remoção, para consultar indicadores por
+ * período somando dias em vez de varrer as transações.
+ */
+@Entity
+@Table(name = "rollup_diario")
+public class RollupDiario {
+
+    public static final String ENTRADA = "E";
+    public static final String VENDA = "V";
+
+    @EmbeddedId
+    private RollupDiarioId id;
+
+    private long qtd;
+
+    @Column(name = "soma_prazo")
+    private long somaPrazo;
+
+    public RollupDiario() {}
+
+    public RollupDiarioId getId() { return id; }
+    public long getQtd() { return qtd; }
+    public long getSomaPrazo() { return somaPrazo; }
+}
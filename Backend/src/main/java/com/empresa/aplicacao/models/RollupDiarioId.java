@@ -0,0 +1,56 @@
+package com.empresa.aplicacao.models;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Chave do rollup diário: tenant, dia, tipo ('E' entrada / 'V' venda), produto e contraparte
+ * (fornecedor da entrada ou cliente da venda, normalizado; vazio se ausente).
+ */
+@Embeddable
+public class RollupDiarioId implements Serializable {
+
+    @Column(name = "tenant_id", length = 254)
+    private String tenantId;
+
+    private LocalDate dia;
+
+    @Column(length = 1)
+    private String tipo;
+
+    @Column(name = "produto_id")
+    private Integer produtoId;
+
+    private String contraparte;
+
+    public RollupDiarioId() {}
+
+    public RollupDiarioId(String tenantId, LocalDate dia, String tipo, Integer produtoId, String contraparte) {
+        this.tenantId = tenantId;
+        this.dia = dia;
+        this.tipo = tipo;
+        this.produtoId = produtoId;
+        this.contraparte = contraparte;
+    }
+
+    public String getTenantId() { return tenantId; }
+    public LocalDate getDia() { return dia; }
+    public String getTipo() { return tipo; }
+    public Integer getProdutoId() { return produtoId; }
+    public String getContraparte() { return contraparte; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RollupDiarioId outro)) return false;
+        return Objects.equals(tenantId, outro.tenantId) && Objects.equals(dia, outro.dia)
+                && Objects.equals(tipo, outro.tipo) && Objects.equals(produtoId, outro.produtoId) && Objects.equals(contraparte, outro.contraparte);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tenantId, dia, tipo, produtoId, contraparte);
+    }
+}
@@ -1,16 +1,43 @@
 package com.empresa.aplicacao.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
 import java.time.LocalDate;
 
 @Entity
+// Índices criados pelas migrações em db/migration (V2, V6, V7); os de consulta começam pelo tenant
+@Table(indexes = {
+        @Index(name = "idx_venda_produto", columnList = "produto_id"),
+        @Index(name = "idx_venda_tenant_produto_data", columnList = "tenant_id, produto_id, data_venda"),
+        @Index(name = "idx_venda_tenant_data", columnList = "tenant_id, data_venda"),
+        @Index(name = "idx_venda_tenant_prazo", columnList = "tenant_id, prazo_pagto")
+})
 public class Venda {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    // Preenchido pelo Hibernate com o tenant da sessão (ver TenantContexto); filtra consultas e buscas por id
+    @JsonIgnore
+    @TenantId
+    @Column(name = "tenant_id", length = 254, nullable = false, updatable = false)
+    private String tenantId;
+
     private LocalDate dataVenda;
     private String cliente;
     private String produto;
+
+    // Id do produto no catálogo (ver ProdutoCatalogo)
+    @Column(name = "produto_id")
+    private Integer produtoId;
+
+    // Somente para a chave estrangeira produto_id -> produto; gravação feita por produtoId
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "produto_id", insertable = false, updatable = false)
+    private Produto produtoCatalogo;
+
     private double precoVenda;
     private int prazoPagto;
 
@@ -18,6 +45,8 @@ public class Venda {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public String getTenantId() { return tenantId; }
+
     public LocalDate getDataVenda() { return dataVenda; }
     public void setDataVenda(LocalDate dataVenda) { this.dataVenda = dataVenda; }
 
@@ -27,6 +56,9 @@ public class Venda {
     public String getProduto() { return produto; }
     public void setProduto(String produto) { this.produto = produto; }
 
+    public Integer getProdutoId() { return produtoId; }
+    public void setProdutoId(Integer produtoId) { this.produtoId = produtoId; }
+
     public double getPrecoVenda() { return precoVenda; }
     public void setPrecoVenda(double precoVenda) { this.precoVenda = precoVenda; }
 
@@ -0,0 +1,26 @@
+package com.empresa.aplicacao.repositories;
+
+/**
+ * Projeção agregada do prazo de pagamento (COUNT, SUM e soma dos quadrados calculados no banco).
+ */
+public interface AgregadoPrazo {
+
+    Number getQuantidade();
+
+    Number getSomaPrazo();
+
+    Number getSomaQuadradosPrazo();
+
+    default double media() {
+        long quantidade = getQuantidade() == null ? 0 : getQuantidade().longValue();
+        if (quantidade == 0) return 0;
+        return (getSomaPrazo() == null ? 0 : getSomaPrazo().doubleValue()) / quantidade;
+    }
+
+    default double desvioPadrao() {
+        long quantidade = getQuantidade() == null ? 0 : getQuantidade().longValue();
+        if (quantidade == 0 || getSomaQuadradosPrazo() == null) return 0;
+        double media = media();
+        return Math.sqrt(Math.max(0, getSomaQuadradosPrazo().doubleValue() / quantidade - media * media));
+    }
+}
@@ -0,0 +1,14 @@
+package com.empresa.aplicacao.repositories;
+
+/**
+ * Projeção agregada por produto: quantidade de registros e soma das datas em epoch day.
+ * Usada na reconstrução dos indicadores incrementais (IndicadoresIncrementais) sem carregar as entidades.
+ */
+public interface AgregadoProdutoDias {
+
+    Number getProdutoId();
+
+    Number getQuantidade();
+
+    Number getSomaDias();
+}
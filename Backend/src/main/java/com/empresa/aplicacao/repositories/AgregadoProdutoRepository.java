@@ -0,0 +1,24 @@
+package com.empresa.aplicacao.repositories;
+
+import com.empresa.aplicacao.models.AgregadoProduto;
+import com.empresa.aplicacao.models.AgregadoProdutoId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface AgregadoProdutoRepository extends JpaRepository<AgregadoProduto, AgregadoProdutoId> {
+
+    List<AgregadoProduto> findByTenantId(String tenantId);
+
+    // 🔹 Remove o snapshot por produto do tenant (regravação completa)
+    @Transactional
+    @Modifying
+    @Query("delete from AgregadoProduto a where a.tenantId = :tenant")
+    int apagarDoTenant(@Param("tenant") String tenant);
+}
@@ -0,0 +1,9 @@
+package com.empresa.aplicacao.repositories;
+
+import com.empresa.aplicacao.models.AgregadoTotais;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AgregadoTotaisRepository extends JpaRepository<AgregadoTotais, String> {
+}
@@ -0,0 +1,11 @@
+package com.empresa.aplicacao.repositories;
+
+/**
+ * Projeção com a quantidade de registros por produto (id do catálogo).
+ */
+public interface ContagemProduto {
+
+    Number getProdutoId();
+
+    Number getQuantidade();
+}
@@ -0,0 +1,10 @@
+package com.empresa.aplicacao.repositories;
+
+import java.time.LocalDate;
+
+/**
+ * Projeção de uma entrada ou venda com só o produto e a data (PMRE FIFO).
+ * Não é entidade: não entra no contexto de persistência.
+ */
+public record DataProduto(Integer produtoId, LocalDate data) {
+}
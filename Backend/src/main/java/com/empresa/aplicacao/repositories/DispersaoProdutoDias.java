@@ -0,0 +1,10 @@
+package com.empresa.aplicacao.repositories;
+
+/**
+ * Agregado por produto com a soma dos quadrados das datas (epoch day), para estimar
+ * a dispersão dos prazos entre entradas e vendas (simulação do saldo mínimo).
+ */
+public interface DispersaoProdutoDias extends AgregadoProdutoDias {
+
+    Number getSomaQuadrados();
+}
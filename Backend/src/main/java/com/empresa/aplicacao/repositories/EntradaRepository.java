@@ -1,10 +1,102 @@
 package com.empresa.aplicacao.repositories;
 
 import com.empresa.aplicacao.models.Entrada;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EntradaRepository extends JpaRepository<Entrada, Long> {
-    // Aqui você pode criar consultas customizadas depois, se precisar
+
+    // Consultas JPQL e derivadas já recebem o filtro do tenant da sessão (@TenantId);
+    // as nativas recebem o tenant como parâmetro
+
+    // Filtros opcionais das listagens (parâmetro nulo = sem filtro)
+    String FILTRO = "(:de is null or e.dataEntrada >= :de) and (:ate is null or e.dataEntrada <= :ate) "
+            + "and (:produtoId is null or e.produtoId = :produtoId) "
+            + "and (:fornecedor is null or lower(e.fornecedor) = lower(:fornecedor)) ";
+
+    // 🔹 COUNT/SUM (e soma dos quadrados) do prazo de pagamento (PMPF; varre só idx_entrada_tenant_prazo)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select count(e) as quantidade, coalesce(sum(e.prazoPagto), 0) as somaPrazo, "
+            + "coalesce(sum(e.prazoPagto * e.prazoPagto), 0) as somaQuadradosPrazo from Entrada e")
+    AgregadoPrazo agregarPrazo();
+
+    // 🔹 Quantidade e soma das datas (epoch day) por produto (PMRE). TO_DAYS('1970-01-01') = 719528
+    // Lido só de idx_entrada_tenant_produto_data, já na ordem do group by
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "select produto_id as produtoId, count(*) as quantidade, "
+            + "sum(to_days(data_entrada) - 719528) as somaDias "
+            + "from entrada where tenant_id = :tenant and produto_id is not null and data_entrada is not null "
+            + "group by produto_id", nativeQuery = true)
+    List<AgregadoProdutoDias> agregarDiasPorProduto(@Param("tenant") String tenant);
+
+    // 🔹 Quantidade, soma e soma dos quadrados das datas por produto (dispersão do PMRE)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "select produto_id as produtoId, count(*) as quantidade, "
+            + "sum(to_days(data_entrada) - 719528) as somaDias, "
+            + "sum((to_days(data_entrada) - 719528) * (to_days(data_entrada) - 719528)) as somaQuadrados "
+            + "from entrada where tenant_id = :tenant and produto_id is not null and data_entrada is not null "
+            + "group by produto_id", nativeQuery = true)
+    List<DispersaoProdutoDias> agregarDispersaoPorProduto(@Param("tenant") String tenant);
+
+    // 🔹 Verificação indexada de produto cadastrado (coluna produto_id)
+    boolean existsByProdutoId(Integer produtoId);
+
+    // 🔹 Quantidade de entradas por produto (carga do registro em memória)
+    @Query("select e.produtoId as produtoId, count(e) as quantidade from Entrada e "
+            + "where e.produtoId is not null group by e.produtoId")
+    List<ContagemProduto> contarPorProduto();
+
+    // 🔹 Tenants com alguma entrada ou venda (tarefas agendadas e reconstruções)
+    @Query(value = "select tenant_id from entrada union select tenant_id from venda", nativeQuery = true)
+    List<String> listarTenants();
+
+    // 🔹 Produto e data de todas as entradas para o PMRE FIFO, em streaming e sem entidades
+    // Só colunas de idx_entrada_tenant_produto_data: o MySQL lê apenas o índice
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.empresa.aplicacao.repositories.DataProduto(e.produtoId, e.dataEntrada) from Entrada e "
+            + "where e.produtoId is not null and e.dataEntrada is not null")
+    Stream<DataProduto> streamParaCalculo();
+
+    // 🔹 Página por cursor (keyset no id); somente leitura: vai para a réplica
+    @Transactional(readOnly = true)
+    @Query("select e from Entrada e where e.id > :cursor and " + FILTRO + "order by e.id")
+    List<Entrada> buscarPagina(@Param("cursor") long cursor,
+                               @Param("de") LocalDate de,
+                               @Param("ate") LocalDate ate,
+                               @Param("produtoId") Integer produtoId,
+                               @Param("fornecedor") String fornecedor,
+                               Limit limite);
+
+    // 🔹 Leitura em streaming (cursor JDBC do MySQL: fetch size Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Entrada e where " + FILTRO + "order by e.id")
+    Stream<Entrada> streamFiltrado(@Param("de") LocalDate de,
+                                   @Param("ate") LocalDate ate,
+                                   @Param("produtoId") Integer produtoId,
+                                   @Param("fornecedor") String fornecedor);
+
+    // 🔹 Remoção por id devolvendo as linhas afetadas: de duas remoções concorrentes da mesma
+    // entrada, só uma apaga a linha (1) e publica o evento; a outra recebe 0
+    @Modifying
+    @Query(value = "delete from entrada where id = :id and tenant_id = :tenant", nativeQuery = true)
+    int apagarPorId(@Param("id") Long id, @Param("tenant") String tenant);
 }
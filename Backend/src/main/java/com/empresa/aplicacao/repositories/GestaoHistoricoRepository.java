@@ -1,9 +1,87 @@
 package com.empresa.aplicacao.repositories;
 
 import com.empresa.aplicacao.models.GestaoHistorico;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GestaoHistoricoRepository extends JpaRepository<GestaoHistorico, Long> {
+
+    String FILTRO = "(:de is null or h.dataCalculo >= :de) and (:ate is null or h.dataCalculo <= :ate) ";
+
+    // 🔹 Página por cursor (keyset em dataCalculo, id: a compactação regrava os pontos com ids novos).
+    // Somente leitura: vai para a réplica
+    @Transactional(readOnly = true)
+    @Query("select h from GestaoHistorico h where " + FILTRO + "order by h.dataCalculo, h.id")
+    List<GestaoHistorico> buscarPrimeiraPagina(@Param("de") LocalDate de,
+                                               @Param("ate") LocalDate ate,
+                                               Limit limite);
+
+    @Transactional(readOnly = true)
+    @Query("select h from GestaoHistorico h where (h.dataCalculo > :dataCursor or (h.dataCalculo = :dataCursor and h.id > :cursor)) and "
+            + FILTRO + "order by h.dataCalculo, h.id")
+    List<GestaoHistorico> buscarPagina(@Param("dataCursor") LocalDate dataCursor,
+                                       @Param("cursor") long cursor,
+                                       @Param("de") LocalDate de,
+                                       @Param("ate") LocalDate ate,
+                                       Limit limite);
+
+    // 🔹 Leitura em streaming (cursor JDBC do MySQL: fetch size Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select h from GestaoHistorico h where " + FILTRO + "order by h.dataCalculo, h.id")
+    Stream<GestaoHistorico> streamFiltrado(@Param("de") LocalDate de,
+                                           @Param("ate") LocalDate ate);
+
+    // 🔹 Últimos itens por data (listagem limitada)
+    @Transactional(readOnly = true)
+    @Query("select h from GestaoHistorico h order by h.dataCalculo desc, h.id desc")
+    List<GestaoHistorico> buscarUltimos(Limit limite);
+
+    Optional<GestaoHistorico> findFirstByOrderByDataCalculoAsc();
+
+    Optional<GestaoHistorico> findFirstByOrderByDataCalculoDesc();
+
+    // 🔹 Série em ordem de data (índice idx_historico_tenant_data), lida em streaming
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select h from GestaoHistorico h where h.dataCalculo between :de and :ate order by h.dataCalculo, h.id")
+    Stream<GestaoHistorico> streamSerie(@Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+    // ---------------------------
+    // --- COMPACTAÇÃO ---
+    // ---------------------------
+
+    // 🔹 Dias anteriores ao limite com mais de um ponto
+    @Query("select h.dataCalculo from GestaoHistorico h where h.dataCalculo < :limite "
+            + "group by h.dataCalculo having count(h) > 1")
+    List<LocalDate> diasParaCompactar(@Param("limite") LocalDate limite);
+
+    // 🔹 Meses anteriores ao limite com mais de um ponto (retorna o primeiro dia com dados do mês)
+    @Query("select min(h.dataCalculo) from GestaoHistorico h where h.dataCalculo < :limite "
+            + "group by extract(year from h.dataCalculo), extract(month from h.dataCalculo) having count(h) > 1")
+    List<LocalDate> mesesParaCompactar(@Param("limite") LocalDate limite);
+
+    @Query("select h from GestaoHistorico h where h.dataCalculo between :de and :ate")
+    List<GestaoHistorico> buscarIntervalo(@Param("de") LocalDate de, @Param("ate") LocalDate ate);
+
+    // 🔹 Tenants com histórico (compactação agendada)
+    @Query(value = "select distinct tenant_id from gestao_historico", nativeQuery = true)
+    List<String> listarTenants();
 }
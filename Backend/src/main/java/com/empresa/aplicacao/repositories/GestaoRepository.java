@@ -2,8 +2,19 @@ package com.empresa.aplicacao.repositories;
 
 import com.empresa.aplicacao.models.Gestao;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface GestaoRepository extends JpaRepository<Gestao, Long> {
+
+    // 🔹 Previsão de gastos vigente (primeira cadastrada)
+    Optional<Gestao> findFirstByOrderByIdAsc();
+
+    // 🔹 Tenants com previsão de gastos cadastrada (recálculo agendado do histórico)
+    @Query(value = "select distinct tenant_id from gestao", nativeQuery = true)
+    List<String> listarTenants();
 }
@@ -0,0 +1,44 @@
+package com.empresa.aplicacao.repositories;
+
+import com.empresa.aplicacao.models.Produto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ProdutoRepository extends JpaRepository<Produto, Integer> {
+
+    Optional<Produto> findByChave(String chave);
+
+    // ---------------------------
+    // --- MIGRAÇÃO (produto texto -> produto_id) ---
+    // ---------------------------
+
+    // 🔹 Cria no catálogo os produtos que só existem como texto em Entradas/Vendas
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into produto (nome, chave) "
+            + "select min(p.produto), lower(p.produto) from "
+            + "(select produto from entrada where produto_id is null "
+            + " union all select produto from venda where produto_id is null) p "
+            + "where p.produto is not null group by lower(p.produto)", nativeQuery = true)
+    int cadastrarProdutosSemCatalogo();
+
+    // 🔹 Preenche produto_id das entradas gravadas antes do catálogo
+    @Transactional
+    @Modifying
+    @Query(value = "update entrada e join produto p on p.chave = lower(e.produto) "
+            + "set e.produto_id = p.id where e.produto_id is null and e.produto is not null", nativeQuery = true)
+    int vincularEntradas();
+
+    // 🔹 Preenche produto_id das vendas gravadas antes do catálogo
+    @Transactional
+    @Modifying
+    @Query(value = "update venda v join produto p on p.chave = lower(v.produto) "
+            + "set v.produto_id = p.id where v.produto_id is null and v.produto is not null", nativeQuery = true)
+    int vincularVendas();
+}
@@ -0,0 +1,70 @@
+package com.empresa.aplicacao.repositories;
+
+import com.empresa.aplicacao.models.RollupDiario;
+import com.empresa.aplicacao.models.RollupDiarioId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RollupDiarioRepository extends JpaRepository<RollupDiario, RollupDiarioId> {
+
+    // Contagem e soma de prazos por (tenant, tipo, dia, produto): transações menos rollup
+    String SQL_TENANTS_DIVERGENTES = "select distinct tenant_id from ("
+            + "select d.tenant_id from ("
+            + "select tenant_id, 'E' tipo, data_entrada dia, produto_id, count(*) qtd, sum(prazo_pagto) soma_prazo from entrada "
+            + "where produto_id is not null and data_entrada is not null group by tenant_id, data_entrada, produto_id "
+            + "union all "
+            + "select tenant_id, 'V', data_venda, produto_id, count(*), sum(prazo_pagto) from venda "
+            + "where produto_id is not null and data_venda is not null group by tenant_id, data_venda, produto_id "
+            + "union all "
+            + "select tenant_id, tipo, dia, produto_id, -sum(qtd), -sum(soma_prazo) from rollup_diario "
+            + "group by tenant_id, tipo, dia, produto_id"
+            + ") d group by d.tenant_id, d.tipo, d.dia, d.produto_id "
+            + "having sum(d.qtd) <> 0 or sum(d.soma_prazo) <> 0"
+            + ") divergentes";
+
+    // 🔹 Linhas do período no tenant (chave primária começa por tenant e dia: varredura por faixa)
+    @Transactional(readOnly = true)
+    @Query("select r from RollupDiario r where r.id.tenantId = :tenant and r.id.dia between :de and :ate "
+            + "and (:produtoId is null or r.id.produtoId = :produtoId) "
+            + "and (:fornecedor is null or r.id.tipo <> 'E' or r.id.contraparte = :fornecedor) "
+            + "and (:cliente is null or r.id.tipo <> 'V' or r.id.contraparte = :cliente)")
+    List<RollupDiario> buscarPeriodo(@Param("tenant") String tenant,
+                                     @Param("de") LocalDate de,
+                                     @Param("ate") LocalDate ate,
+                                     @Param("produtoId") Integer produtoId,
+                                     @Param("fornecedor") String fornecedor,
+                                     @Param("cliente") String cliente);
+
+    // 🔹 Reconstrução do tenant a partir das entradas (contraparte = fornecedor normalizado)
+    @Modifying
+    @Query(value = "insert into rollup_diario (tenant_id, dia, tipo, produto_id, contraparte, qtd, soma_prazo) "
+            + "select tenant_id, data_entrada, 'E', produto_id, coalesce(lower(trim(fornecedor)), ''), count(*), sum(prazo_pagto) "
+            + "from entrada where tenant_id = :tenant and produto_id is not null and data_entrada is not null "
+            + "group by tenant_id, data_entrada, produto_id, coalesce(lower(trim(fornecedor)), '')", nativeQuery = true)
+    int reconstruirEntradas(@Param("tenant") String tenant);
+
+    // 🔹 Reconstrução do tenant a partir das vendas (contraparte = cliente normalizado)
+    @Modifying
+    @Query(value = "insert into rollup_diario (tenant_id, dia, tipo, produto_id, contraparte, qtd, soma_prazo) "
+            + "select tenant_id, data_venda, 'V', produto_id, coalesce(lower(trim(cliente)), ''), count(*), sum(prazo_pagto) "
+            + "from venda where tenant_id = :tenant and produto_id is not null and data_venda is not null "
+            + "group by tenant_id, data_venda, produto_id, coalesce(lower(trim(cliente)), '')", nativeQuery = true)
+    int reconstruirVendas(@Param("tenant") String tenant);
+
+    // 🔹 Tenants cujo rollup não bate com entradas e vendas (deltas perdidos numa queda do processo)
+    @Query(value = SQL_TENANTS_DIVERGENTES, nativeQuery = true)
+    List<String> tenantsDivergentes();
+
+    // 🔹 Remove o rollup do tenant (antes da reconstrução)
+    @Modifying
+    @Query("delete from RollupDiario r where r.id.tenantId = :tenant")
+    int apagarDoTenant(@Param("tenant") String tenant);
+}
@@ -1,9 +1,90 @@
 package com.empresa.aplicacao.repositories;
 
 import com.empresa.aplicacao.models.Venda;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VendaRepository extends JpaRepository<Venda, Long> {
+
+    // Consultas JPQL e derivadas já recebem o filtro do tenant da sessão (@TenantId);
+    // as nativas recebem o tenant como parâmetro
+
+    // Filtros opcionais das listagens (parâmetro nulo = sem filtro)
+    String FILTRO = "(:de is null or v.dataVenda >= :de) and (:ate is null or v.dataVenda <= :ate) "
+            + "and (:produtoId is null or v.produtoId = :produtoId) "
+            + "and (:cliente is null or lower(v.cliente) = lower(:cliente)) ";
+
+    // 🔹 COUNT/SUM (e soma dos quadrados) do prazo de pagamento (PMRV; varre só idx_venda_tenant_prazo)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select count(v) as quantidade, coalesce(sum(v.prazoPagto), 0) as somaPrazo, "
+            + "coalesce(sum(v.prazoPagto * v.prazoPagto), 0) as somaQuadradosPrazo from Venda v")
+    AgregadoPrazo agregarPrazo();
+
+    // 🔹 Quantidade e soma das datas (epoch day) por produto (PMRE). TO_DAYS('1970-01-01') = 719528
+    // Lido só de idx_venda_tenant_produto_data, já na ordem do group by
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "select produto_id as produtoId, count(*) as quantidade, "
+            + "sum(to_days(data_venda) - 719528) as somaDias "
+            + "from venda where tenant_id = :tenant and produto_id is not null and data_venda is not null "
+            + "group by produto_id", nativeQuery = true)
+    List<AgregadoProdutoDias> agregarDiasPorProduto(@Param("tenant") String tenant);
+
+    // 🔹 Quantidade, soma e soma dos quadrados das datas por produto (dispersão do PMRE)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "select produto_id as produtoId, count(*) as quantidade, "
+            + "sum(to_days(data_venda) - 719528) as somaDias, "
+            + "sum((to_days(data_venda) - 719528) * (to_days(data_venda) - 719528)) as somaQuadrados "
+            + "from venda where tenant_id = :tenant and produto_id is not null and data_venda is not null "
+            + "group by produto_id", nativeQuery = true)
+    List<DispersaoProdutoDias> agregarDispersaoPorProduto(@Param("tenant") String tenant);
+
+    // 🔹 Produto e data de todas as vendas para o PMRE FIFO, em streaming e sem entidades
+    // Só colunas de idx_venda_tenant_produto_data: o MySQL lê apenas o índice
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.empresa.aplicacao.repositories.DataProduto(v.produtoId, v.dataVenda) from Venda v "
+            + "where v.produtoId is not null and v.dataVenda is not null")
+    Stream<DataProduto> streamParaCalculo();
+
+    // 🔹 Página por cursor (keyset no id); somente leitura: vai para a réplica
+    @Transactional(readOnly = true)
+    @Query("select v from Venda v where v.id > :cursor and " + FILTRO + "order by v.id")
+    List<Venda> buscarPagina(@Param("cursor") long cursor,
+                             @Param("de") LocalDate de,
+                             @Param("ate") LocalDate ate,
+                             @Param("produtoId") Integer produtoId,
+                             @Param("cliente") String cliente,
+                             Limit limite);
+
+    // 🔹 Leitura em streaming (cursor JDBC do MySQL: fetch size Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select v from Venda v where " + FILTRO + "order by v.id")
+    Stream<Venda> streamFiltrado(@Param("de") LocalDate de,
+                                 @Param("ate") LocalDate ate,
+                                 @Param("produtoId") Integer produtoId,
+                                 @Param("cliente") String cliente);
+
+    // 🔹 Remoção por id devolvendo as linhas afetadas: de duas remoções concorrentes da mesma
+    // venda, só uma apaga a linha (1) e publica o evento; a outra recebe 0
+    @Modifying
+    @Query(value = "delete from venda where id = :id and tenant_id = :tenant", nativeQuery = true)
+    int apagarPorId(@Param("id") Long id, @Param("tenant") String tenant);
 }
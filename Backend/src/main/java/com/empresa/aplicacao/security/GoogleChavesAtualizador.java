@@ -0,0 +1,56 @@
+package com.empresa.aplicacao.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Mantém as chaves públicas do Google atualizadas em segundo plano.
+ *
+ * O GooglePublicKeysManager só busca os certificados quando estão para expirar (conforme o
+ * Cache-Control) e faz isso na thread do login. Aqui a busca é feita na inicialização e
+ * antes da expiração, para que nenhum login espere pela rede.
+ */
+@Component
+public class GoogleChavesAtualizador {
+
+	private static final Logger log = LoggerFactory.getLogger(GoogleChavesAtualizador.class);
+
+	private final GooglePublicKeysManager chaves;
+
+	@Value("${google.certs.antecedencia-ms:600000}")
+	private long antecedenciaMs;
+
+	public GoogleChavesAtualizador(GooglePublicKeysManager chaves) {
+		this.chaves = chaves;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void aoIniciar() {
+		atualizar();
+	}
+
+	@Scheduled(fixedDelayString = "${google.certs.verificar-ms:60000}")
+	public void atualizarSeNecessario() {
+		if (chaves.getExpirationTimeMilliseconds() - System.currentTimeMillis() < antecedenciaMs) {
+			atualizar();
+		}
+	}
+
+	private void atualizar() {
+		try {
+			chaves.refresh();
+		} catch (IOException | GeneralSecurityException e) {
+			// Mantém as chaves atuais; o login tenta de novo se estiverem expiradas
+			log.warn("Falha ao atualizar certificados do Google", e);
+		}
+	}
+}
@@ -16,6 +16,7 @@ import java.io.IOException;
 public class JwtFilter extends OncePerRequestFilter {
 
 	private final JwtUtil jwtUtil;
+	private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
 	public JwtFilter(JwtUtil jwtUtil) {
 		this.jwtUtil = jwtUtil;
@@ -40,7 +41,7 @@ public class JwtFilter extends OncePerRequestFilter {
 
 				UsernamePasswordAuthenticationToken authentication =
 						new UsernamePasswordAuthenticationToken(email, null, null);
-				authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+				authentication.setDetails(detailsSource.buildDetails(request));
 
 				SecurityContextHolder.getContext().setAuthentication(authentication);
 			} catch (Exception e) {
@@ -1,16 +1,72 @@
 package com.empresa.aplicacao.security;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Geração e validação dos JWT locais.
+ *
+ * O parser é criado uma vez (imutável e thread-safe). Tokens já validados ficam num cache
+ * limitado, indexado pelo SHA-256 do token e expirando no "exp" do próprio token, então a
+ * assinatura só é verificada na primeira vez. Tokens revogados ficam numa lista que também
+ * expira no "exp" e é consultada antes do cache, em toda validação.
+ */
 @Component
 public class JwtUtil {
 
 	private final Key chave = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+	private final JwtParser parser = Jwts.parserBuilder().setSigningKey(chave).build();
+
+	private final MeterRegistry meterRegistry;
+
+	@Value("${jwt.cache.tamanho-maximo:10000}")
+	private long tamanhoMaximoCache;
+
+	private Cache<String, TokenValidado> validados;
+	private Cache<String, TokenValidado> revogados;
+
+	private record TokenValidado(String email, long expiraEmMs) {
+	}
+
+	public JwtUtil(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void iniciar() {
+		validados = Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximoCache)
+				.expireAfter(ateExpirar())
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, validados, "jwt.validados");
+		// Sem limite de tamanho: descartar uma revogação devolveria a validade ao token
+		revogados = Caffeine.newBuilder()
+				.expireAfter(ateExpirar())
+				.build();
+	}
 
 	public String gerarToken(String email) {
 		return Jwts.builder()
@@ -21,12 +77,86 @@ public class JwtUtil {
 				.compact();
 	}
 
+	/**
+	 * Devolve o e-mail (subject) do token; lança JwtException se inválido, expirado ou revogado.
+	 */
 	public String validarToken(String token) {
-		return Jwts.parserBuilder()
-				.setSigningKey(chave)
-				.build()
-				.parseClaimsJws(token)
-				.getBody()
-				.getSubject();
+		String hash = hash(token);
+		if (revogados.getIfPresent(hash) != null) throw new JwtException("Token revogado");
+
+		TokenValidado validado = validados.getIfPresent(hash);
+		if (validado == null) {
+			validado = verificar(token);
+			validados.put(hash, validado);
+		} else if (validado.expiraEmMs() <= System.currentTimeMillis()) {
+			// O cache expira no "exp", mas a remoção não é exata ao milissegundo
+			validados.invalidate(hash);
+			throw new JwtException("Token expirado");
+		}
+		return validado.email();
+	}
+
+	/**
+	 * Revoga o token até a sua expiração. Tokens inválidos são ignorados (já não passam).
+	 */
+	public void revogar(String token) {
+		TokenValidado validado;
+		try {
+			validado = verificar(token);
+		} catch (JwtException e) {
+			return;
+		}
+		String hash = hash(token);
+		revogados.put(hash, validado);
+		validados.invalidate(hash);
+	}
+
+	public Map<String, Object> estatisticas() {
+		CacheStats stats = validados.stats();
+
+		Map<String, Object> resultado = new LinkedHashMap<>();
+		resultado.put("tamanho", validados.estimatedSize());
+		resultado.put("acertos", stats.hitCount());
+		resultado.put("falhas", stats.missCount());
+		resultado.put("taxaAcerto", stats.hitRate());
+		resultado.put("remocoes", stats.evictionCount());
+		resultado.put("revogados", revogados.estimatedSize());
+		return resultado;
+	}
+
+	private TokenValidado verificar(String token) {
+		Claims claims = parser.parseClaimsJws(token).getBody();
+		Date exp = claims.getExpiration();
+		if (exp == null) throw new JwtException("Token sem expiração");
+		return new TokenValidado(claims.getSubject(), exp.getTime());
+	}
+
+	private static String hash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Expiry<String, TokenValidado> ateExpirar() {
+		return new Expiry<>() {
+			@Override
+			public long expireAfterCreate(String chave, TokenValidado token, long agora) {
+				long restanteMs = Math.max(0, token.expiraEmMs() - System.currentTimeMillis());
+				return TimeUnit.MILLISECONDS.toNanos(restanteMs);
+			}
+
+			@Override
+			public long expireAfterUpdate(String chave, TokenValidado token, long agora, long duracaoAtual) {
+				return expireAfterCreate(chave, token, agora);
+			}
+
+			@Override
+			public long expireAfterRead(String chave, TokenValidado token, long agora, long duracaoAtual) {
+				return duracaoAtual;
+			}
+		};
 	}
 }
@@ -0,0 +1,165 @@
+package com.empresa.aplicacao.services;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Acumuladores dos indicadores (PMRE média de pares, PMRV, PMPF) de um conjunto de entradas
+ * e vendas: totais de prazo e, por produto (id do catálogo), a quantidade e a soma das datas
+ * (epoch day).
+ *
+ * Ao incluir uma venda no dia d, os novos pares somam (nEntradas × d - somaEntradas); ao
+ * incluir uma entrada, (somaVendas - nVendas × d). A remoção (sinal -1) subtrai o mesmo valor.
+ *
+ * Os produtos ficam num mapa esparso só com os que têm movimento: o tamanho acompanha os
+ * dados do tenant, não o catálogo compartilhado.
+ *
+ * Usado pelo estado em memória de IndicadoresIncrementais e pela reprodução do log de
+ * eventos (LedgerEventos). Não é thread-safe.
+ */
+class Acumuladores {
+
+    private static final int VERSAO_FORMATO = 1;
+
+    // Posições do vetor de cada produto
+    static final int QTD_ENTRADAS = 0;
+    static final int SOMA_DIAS_ENTRADAS = 1;
+    static final int QTD_VENDAS = 2;
+    static final int SOMA_DIAS_VENDAS = 3;
+
+    final Map<Integer, long[]> produtos = new HashMap<>();
+    long qtdEntradas;
+    long somaPrazoEntradas;
+    long qtdVendas;
+    long somaPrazoVendas;
+    long somaDiasPares;
+    long qtdPares;
+
+    void aplicarEntrada(Integer produtoId, LocalDate data, int prazo, int sinal) {
+        qtdEntradas += sinal;
+        somaPrazoEntradas += (long) sinal * prazo;
+
+        if (produtoId != null && data != null) {
+            int id = produtoId;
+            long[] p = produtos.computeIfAbsent(id, k -> new long[4]);
+            long dia = data.toEpochDay();
+
+            somaDiasPares += sinal * (p[SOMA_DIAS_VENDAS] - p[QTD_VENDAS] * dia);
+            qtdPares += sinal * p[QTD_VENDAS];
+            p[QTD_ENTRADAS] += sinal;
+            p[SOMA_DIAS_ENTRADAS] += sinal * dia;
+            descartarSemMovimento(id, p);
+            produtoAlterado(id);
+        }
+    }
+
+    void aplicarVenda(Integer produtoId, LocalDate data, int prazo, int sinal) {
+        qtdVendas += sinal;
+        somaPrazoVendas += (long) sinal * prazo;
+
+        if (produtoId != null && data != null) {
+            int id = produtoId;
+            long[] p = produtos.computeIfAbsent(id, k -> new long[4]);
+            long dia = data.toEpochDay();
+
+            somaDiasPares += sinal * (p[QTD_ENTRADAS] * dia - p[SOMA_DIAS_ENTRADAS]);
+            qtdPares += sinal * p[QTD_ENTRADAS];
+            p[QTD_VENDAS] += sinal;
+            p[SOMA_DIAS_VENDAS] += sinal * dia;
+            descartarSemMovimento(id, p);
+            produtoAlterado(id);
+        }
+    }
+
+    /** Chamado a cada alteração dos acumuladores de um produto. */
+    void produtoAlterado(int id) {
+    }
+
+    private void descartarSemMovimento(int id, long[] p) {
+        if (p[QTD_ENTRADAS] == 0 && p[QTD_VENDAS] == 0) produtos.remove(id);
+    }
+
+    /**
+     * Define os acumuladores de um produto (carga de snapshot ou reconstrução); sem movimento, o
+     * produto é removido. Os pares precisam ser recalculados depois ({@link #recalcularPares}).
+     */
+    void definirProduto(int id, long qtdEntradasProduto, long somaDiasEntradasProduto,
+                        long qtdVendasProduto, long somaDiasVendasProduto) {
+        if (qtdEntradasProduto == 0 && qtdVendasProduto == 0) {
+            produtos.remove(id);
+        } else {
+            produtos.put(id, new long[]{qtdEntradasProduto, somaDiasEntradasProduto, qtdVendasProduto, somaDiasVendasProduto});
+        }
+    }
+
+    void limparProdutos() {
+        produtos.clear();
+    }
+
+    int contarProdutos() {
+        return produtos.size();
+    }
+
+    void recalcularPares() {
+        somaDiasPares = 0;
+        qtdPares = 0;
+        for (long[] p : produtos.values()) {
+            somaDiasPares += p[QTD_ENTRADAS] * p[SOMA_DIAS_VENDAS] - p[QTD_VENDAS] * p[SOMA_DIAS_ENTRADAS];
+            qtdPares += p[QTD_ENTRADAS] * p[QTD_VENDAS];
+        }
+    }
+
+    IndicadoresIncrementais.Totais totaisAtuais() {
+        return new IndicadoresIncrementais.Totais(qtdEntradas, somaPrazoEntradas, qtdVendas, somaPrazoVendas,
+                somaDiasPares, qtdPares);
+    }
+
+    // ---------------------------
+    // --- FORMATO BINÁRIO ---
+    // ---------------------------
+
+    /**
+     * Grava os acumuladores em binário: versão, os quatro totais de prazo, a quantidade de
+     * produtos com movimento e, para cada um, o id seguido dos quatro acumuladores (36 bytes
+     * por produto). Os pares não são gravados: saem dos acumuladores por produto.
+     */
+    void gravar(DataOutputStream saida) throws IOException {
+        saida.writeByte(VERSAO_FORMATO);
+        saida.writeLong(qtdEntradas);
+        saida.writeLong(somaPrazoEntradas);
+        saida.writeLong(qtdVendas);
+        saida.writeLong(somaPrazoVendas);
+        saida.writeInt(produtos.size());
+        for (Map.Entry<Integer, long[]> produto : produtos.entrySet()) {
+            long[] p = produto.getValue();
+            saida.writeInt(produto.getKey());
+            saida.writeLong(p[QTD_ENTRADAS]);
+            saida.writeLong(p[SOMA_DIAS_ENTRADAS]);
+            saida.writeLong(p[QTD_VENDAS]);
+            saida.writeLong(p[SOMA_DIAS_VENDAS]);
+        }
+    }
+
+    /**
+     * Substitui o conteúdo pelo gravado em {@link #gravar}.
+     */
+    void ler(DataInputStream entrada) throws IOException {
+        int versao = entrada.readUnsignedByte();
+        if (versao != VERSAO_FORMATO) throw new IOException("versão de snapshot desconhecida: " + versao);
+
+        limparProdutos();
+        qtdEntradas = entrada.readLong();
+        somaPrazoEntradas = entrada.readLong();
+        qtdVendas = entrada.readLong();
+        somaPrazoVendas = entrada.readLong();
+        int quantidade = entrada.readInt();
+        for (int i = 0; i < quantidade; i++) {
+            definirProduto(entrada.readInt(), entrada.readLong(), entrada.readLong(), entrada.readLong(), entrada.readLong());
+        }
+        recalcularPares();
+    }
+}
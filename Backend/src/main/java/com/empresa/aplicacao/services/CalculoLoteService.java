@@ -0,0 +1,134 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.ColunasEstoque;
+import com.empresa.aplicacao.dto.ColunasProdutividade;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.stream.IntStream;
+
+/**
+ * Cálculo em lote (colunas de double[]) do Lote Econômico, Custo de Estoque e Produtividade.
+ *
+ * Os laços percorrem vetores primitivos sem alocar objetos por cenário. Lotes a partir de
+ * calculo.lote.limite-paralelo são divididos em blocos processados em paralelo (ForkJoin comum).
+ * As fórmulas são as mesmas do {@link CalculoService}.
+ */
+@Service
+public class CalculoLoteService {
+
+    private static final int TAMANHO_BLOCO = 8192;
+
+    @Value("${calculo.lote.limite-paralelo:65536}")
+    private int limiteParalelo = 65536;
+
+    @Value("${calculo.lote.max-itens:5000000}")
+    private int maxItens = 5_000_000;
+
+    public int getMaxItens() {
+        return maxItens;
+    }
+
+    public ColunasEstoque.Resultado calcularEstoque(ColunasEstoque c) {
+        int n = tamanho(c.demanda(), c.custoPedido(), c.custoManutencao());
+        double[] le = c.le();
+        if (le != null && le.length != n) throw new IllegalArgumentException("coluna le com tamanho diferente");
+
+        double[] lote = new double[n];
+        double[] custo = new double[n];
+        executar(n, (de, ate) -> {
+            for (int i = de; i < ate; i++) {
+                double d = c.demanda()[i];
+                double cp = c.custoPedido()[i];
+                double cm = c.custoManutencao()[i];
+                if (d <= 0 || cp <= 0 || cm <= 0) continue;
+
+                double calculado = loteEconomico(d, cp, cm);
+                double usado = le != null && le[i] > 0 ? le[i] : calculado;
+                lote[i] = calculado;
+                custo[i] = custoEstoque(d, cp, cm, usado);
+            }
+        });
+        return new ColunasEstoque.Resultado(lote, custo);
+    }
+
+    public ColunasProdutividade.Resultado calcularProdutividade(ColunasProdutividade c) {
+        int n = tamanho(c.quantidadeProduzida(), c.horasTrabalho(), c.custoHoraTrabalho(), c.horasMaquinas(),
+                c.custoHoraMaquina(), c.quantidadeMateriaPrima(), c.custoMateriaPrima());
+
+        double[] fisica = new double[n];
+        double[] valor = new double[n];
+        double[] total = new double[n];
+        double[] unitario = new double[n];
+        double[] trabalho = new double[n];
+        double[] maquinas = new double[n];
+        double[] materiaPrima = new double[n];
+
+        executar(n, (de, ate) -> {
+            for (int i = de; i < ate; i++) {
+                double produzida = c.quantidadeProduzida()[i];
+                double qtdMateriaPrima = c.quantidadeMateriaPrima()[i];
+                if (produzida <= 0 || qtdMateriaPrima <= 0) continue;
+
+                trabalho[i] = c.horasTrabalho()[i] * c.custoHoraTrabalho()[i];
+                maquinas[i] = c.horasMaquinas()[i] * c.custoHoraMaquina()[i];
+                materiaPrima[i] = qtdMateriaPrima * c.custoMateriaPrima()[i];
+                total[i] = trabalho[i] + maquinas[i] + materiaPrima[i];
+
+                fisica[i] = produzida / qtdMateriaPrima;
+                valor[i] = total[i] == 0 ? 0.0 : produzida / total[i];
+                unitario[i] = total[i] / produzida;
+            }
+        });
+        return new ColunasProdutividade.Resultado(fisica, valor, total, unitario, trabalho, maquinas, materiaPrima);
+    }
+
+    // ---------------------------
+    // --- FÓRMULAS ---
+    // ---------------------------
+
+    /**
+     * LE = sqrt((2 * custoPedido * demanda) / custoManutencao), com entradas já validadas (&gt; 0).
+     */
+    static double loteEconomico(double demanda, double custoPedido, double custoManutencao) {
+        return Math.sqrt((2.0 * custoPedido * demanda) / custoManutencao);
+    }
+
+    /**
+     * CE = (CM × LE)/2 + (CP × D)/LE, com entradas já validadas (&gt; 0).
+     */
+    static double custoEstoque(double demanda, double custoPedido, double custoManutencao, double lote) {
+        return (custoManutencao * lote) / 2.0 + (custoPedido * demanda) / lote;
+    }
+
+    // ---------------------------
+    // --- EXECUÇÃO ---
+    // ---------------------------
+
+    @FunctionalInterface
+    private interface Bloco {
+        void calcular(int de, int ate);
+    }
+
+    private void executar(int n, Bloco bloco) {
+        if (n < limiteParalelo) {
+            bloco.calcular(0, n);
+            return;
+        }
+
+        int blocos = (n + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        IntStream.range(0, blocos).parallel()
+                .forEach(b -> bloco.calcular(b * TAMANHO_BLOCO, Math.min(n, (b + 1) * TAMANHO_BLOCO)));
+    }
+
+    private int tamanho(double[]... colunas) {
+        int n = -1;
+        for (double[] coluna : colunas) {
+            if (coluna == null) throw new IllegalArgumentException("coluna obrigatória ausente");
+            if (n >= 0 && coluna.length != n) throw new IllegalArgumentException("colunas com tamanhos diferentes");
+            n = coluna.length;
+        }
+        if (n > maxItens) throw new IllegalArgumentException("lote acima do máximo de " + maxItens + " itens");
+        return n;
+    }
+}
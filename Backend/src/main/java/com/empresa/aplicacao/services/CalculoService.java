@@ -1,21 +1,26 @@
 package com.empresa.aplicacao.services;
 
-import com.empresa.aplicacao.models.Entrada;
-import com.empresa.aplicacao.models.Venda;
+import com.empresa.aplicacao.repositories.DataProduto;
 import com.empresa.aplicacao.repositories.EntradaRepository;
 import com.empresa.aplicacao.repositories.VendaRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Serviço responsável pelos cálculos financeiros da aplicação.
  * Alinhado com o PDF "Trabalho - Sistema de Informações Gerenciais"
  * Autor: Gabriel Paizante
+ *
+ * Cada método público é medido em calculo.servico (tags class e method).
  */
 @Service
+@Timed(value = "calculo.servico", histogram = true)
 public class CalculoService {
 
     @Autowired
@@ -24,66 +29,90 @@ public class CalculoService {
     @Autowired
     private VendaRepository vendaRepository;
 
+    @Autowired
+    private IndicadoresIncrementais indicadores;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${calculo.pmre.modo:MEDIA_PARES}")
+    private PmreEngine.Modo modoPmre = PmreEngine.Modo.MEDIA_PARES;
+
     // ---------------------------
     // --- FUNÇÕES EXISTENTES ---
     // ---------------------------
 
+    /**
+     * PMRE agrupado por produto (ver {@link PmreEngine}).
+     * No modo MEDIA_PARES é lido dos acumuladores incrementais em O(1);
+     * o modo FIFO precisa das datas individuais.
+     */
     public double calcularPMRE() {
-        List<Entrada> entradas = entradaRepository.findAll();
-        List<Venda> vendas = vendaRepository.findAll();
-
-        double totalDias = 0;
-        int contador = 0;
-
-        for (Entrada entrada : entradas) {
-            for (Venda venda : vendas) {
-                if (venda.getProduto().equalsIgnoreCase(entrada.getProduto())) {
-                    long dias = ChronoUnit.DAYS.between(entrada.getDataEntrada(), venda.getDataVenda());
-                    totalDias += dias;
-                    contador++;
-                }
-            }
-        }
+        if (modoPmre == PmreEngine.Modo.FIFO) return calcularPmreFifo();
 
-        return contador > 0 ? totalDias / contador : 0;
+        return indicadores.totais().pmre();
     }
 
     public double calcularPMRV() {
-        List<Venda> vendas = vendaRepository.findAll();
-        if (vendas.isEmpty()) return 0;
-
-        double totalPrazo = 0;
-        for (Venda v : vendas) {
-            totalPrazo += v.getPrazoPagto();
-        }
-
-        return totalPrazo / vendas.size();
+        return indicadores.totais().pmrv();
     }
 
     public double calcularPMPF() {
-        List<Entrada> entradas = entradaRepository.findAll();
-        if (entradas.isEmpty()) return 0;
-
-        double totalPrazo = 0;
-        for (Entrada e : entradas) {
-            totalPrazo += e.getPrazoPagto();
-        }
-
-        return totalPrazo / entradas.size();
+        return indicadores.totais().pmpf();
     }
 
     public double calcularCicloOperacional() {
-        return calcularPMRE() + calcularPMRV();
+        return calcularIndicadores(0).cicloOperacional();
     }
 
     public double calcularCicloCaixa() {
-        return calcularCicloOperacional() - calcularPMPF();
+        return calcularIndicadores(0).cicloCaixa();
     }
 
     public double calcularGiroCaixa() {
         return calcularCicloCaixa() / 360.0;
     }
 
+    /**
+     * Calcula todos os indicadores em uma única passada: os acumuladores são lidos uma vez
+     * (ou, no modo FIFO, entradas e vendas são lidas uma vez) e o restante é derivado.
+     */
+    public IndicadoresSnapshot calcularIndicadores(double previsaoGastos) {
+        IndicadoresIncrementais.Totais totais = indicadores.totais();
+
+        double pmre = modoPmre == PmreEngine.Modo.FIFO
+                ? calcularPmreFifo()
+                : totais.pmre();
+        double pmrv = totais.pmrv();
+        double pmpf = totais.pmpf();
+
+        CaixaResult caixa = calcularSaldoMinimoCaixa(previsaoGastos, pmre, pmrv, pmpf);
+
+        return new IndicadoresSnapshot(pmre, pmrv, pmpf, pmre + pmrv,
+                caixa.cicloCaixa(), caixa.giroCaixa(), caixa.saldoMinimo());
+    }
+
+    /**
+     * PMRE FIFO lendo produto e data em streaming (projeção, sem entidades gerenciadas):
+     * na memória ficam só os dias por produto, 4 bytes por linha.
+     * Transação somente leitura só neste caminho: o modo MEDIA_PARES não vai ao banco.
+     */
+    private double calcularPmreFifo() {
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        return leitura.execute(status -> {
+            PmreEngine.Acumulador acumulador = new PmreEngine.Acumulador();
+            // Um cursor por vez: o MySQL não abre outra consulta na conexão com um resultado em streaming aberto
+            try (Stream<DataProduto> entradas = entradaRepository.streamParaCalculo()) {
+                entradas.forEach(linha -> acumulador.adicionarEntrada(linha.produtoId(), linha.data()));
+            }
+            try (Stream<DataProduto> vendas = vendaRepository.streamParaCalculo()) {
+                vendas.forEach(linha -> acumulador.adicionarVenda(linha.produtoId(), linha.data()));
+            }
+            return acumulador.calcular(PmreEngine.Modo.FIFO);
+        });
+    }
+
     // ---------------------------
     // --- MÉTODOS ATUALIZADOS ---
     // ---------------------------
@@ -97,24 +126,16 @@ public class CalculoService {
      * Permite valores negativos (indicando folga de caixa).
      */
     public CaixaResult calcularSaldoMinimoCaixa(double gastosAnuais, double pmre, double pmrv, double pmpf) {
-        CaixaResult result = new CaixaResult();
-
         double cicloCaixa = pmre + pmrv - pmpf;
-        result.setCicloCaixa(cicloCaixa);
 
         if (cicloCaixa == 0) {
-            result.setGiroCaixa(0.0);
-            result.setSaldoMinimo(0.0);
-            return result;
+            return new CaixaResult(cicloCaixa, 0.0, 0.0);
         }
 
         double giroCaixa = 360.0 / cicloCaixa;
-        result.setGiroCaixa(giroCaixa);
-
         double saldoMinimo = gastosAnuais / giroCaixa;
-        result.setSaldoMinimo(saldoMinimo);
 
-        return result;
+        return new CaixaResult(cicloCaixa, giroCaixa, saldoMinimo);
     }
 
     /**
@@ -123,7 +144,7 @@ public class CalculoService {
      */
     public double calcularLoteEconomico(double demanda, double custoPedido, double custoManutencao) {
         if (demanda <= 0 || custoPedido <= 0 || custoManutencao <= 0) return 0.0;
-        return Math.sqrt((2.0 * custoPedido * demanda) / custoManutencao);
+        return CalculoLoteService.loteEconomico(demanda, custoPedido, custoManutencao);
     }
 
     /**
@@ -136,10 +157,7 @@ public class CalculoService {
         double lote = le > 0 ? le : calcularLoteEconomico(demanda, custoPedido, custoManutencao);
         if (lote <= 0) return 0.0;
 
-        double custoManutencaoTotal = (custoManutencao * lote) / 2.0;
-        double custoPedidoTotal = (custoPedido * demanda) / lote;
-
-        return custoManutencaoTotal + custoPedidoTotal;
+        return CalculoLoteService.custoEstoque(demanda, custoPedido, custoManutencao, lote);
     }
 
     /**
@@ -152,10 +170,8 @@ public class CalculoService {
                                                      double custoHoraMaquina,
                                                      double quantidadeMateriaPrima,
                                                      double custoMateriaPrima) {
-        ProdutividadeResult r = new ProdutividadeResult();
-
         if (quantidadeProduzida <= 0 || quantidadeMateriaPrima <= 0) {
-            return r;
+            return ProdutividadeResult.VAZIO;
         }
 
         double produtividadeFisica = quantidadeProduzida / quantidadeMateriaPrima;
@@ -169,64 +185,26 @@ public class CalculoService {
         double produtividadeValor = custoTotalProducao == 0 ? 0.0 : quantidadeProduzida / custoTotalProducao;
         double custoUnitario = quantidadeProduzida == 0 ? 0.0 : custoTotalProducao / quantidadeProduzida;
 
-        r.setProdutividadeFisica(produtividadeFisica);
-        r.setProdutividadeValor(produtividadeValor);
-        r.setCustoTotalProducao(custoTotalProducao);
-        r.setCustoUnitario(custoUnitario);
-        r.setCustoTrabalho(custoTotalTrabalho);
-        r.setCustoMaquinas(custoTotalMaquinas);
-        r.setCustoMateriaPrima(custoTotalMateriaPrima);
-
-        return r;
+        return new ProdutividadeResult(produtividadeFisica, produtividadeValor, custoTotalProducao, custoUnitario,
+                custoTotalTrabalho, custoTotalMaquinas, custoTotalMateriaPrima);
     }
 
     // ---------------------------
-    // --- DTOs SIMPLES (POJOs) ---
+    // --- RESULTADOS (imutáveis) ---
     // ---------------------------
 
-    public static class CaixaResult {
-        private double cicloCaixa;
-        private double giroCaixa;
-        private double saldoMinimo;
-
-        public double getCicloCaixa() { return cicloCaixa; }
-        public void setCicloCaixa(double cicloCaixa) { this.cicloCaixa = cicloCaixa; }
-
-        public double getGiroCaixa() { return giroCaixa; }
-        public void setGiroCaixa(double giroCaixa) { this.giroCaixa = giroCaixa; }
-
-        public double getSaldoMinimo() { return saldoMinimo; }
-        public void setSaldoMinimo(double saldoMinimo) { this.saldoMinimo = saldoMinimo; }
+    public record CaixaResult(double cicloCaixa, double giroCaixa, double saldoMinimo) {
     }
 
-    public static class ProdutividadeResult {
-        private double produtividadeFisica;
-        private double produtividadeValor;
-        private double custoTotalProducao;
-        private double custoUnitario;
-        private double custoTrabalho;
-        private double custoMaquinas;
-        private double custoMateriaPrima;
-
-        public double getProdutividadeFisica() { return produtividadeFisica; }
-        public void setProdutividadeFisica(double produtividadeFisica) { this.produtividadeFisica = produtividadeFisica; }
-
-        public double getProdutividadeValor() { return produtividadeValor; }
-        public void setProdutividadeValor(double produtividadeValor) { this.produtividadeValor = produtividadeValor; }
-
-        public double getCustoTotalProducao() { return custoTotalProducao; }
-        public void setCustoTotalProducao(double custoTotalProducao) { this.custoTotalProducao = custoTotalProducao; }
-
-        public double getCustoUnitario() { return custoUnitario; }
-        public void setCustoUnitario(double custoUnitario) { this.custoUnitario = custoUnitario; }
-
-        public double getCustoTrabalho() { return custoTrabalho; }
-        public void setCustoTrabalho(double custoTrabalho) { this.custoTrabalho = custoTrabalho; }
-
-        public double getCustoMaquinas() { return custoMaquinas; }
-        public void setCustoMaquinas(double custoMaquinas) { this.custoMaquinas = custoMaquinas; }
+    public record ProdutividadeResult(double produtividadeFisica,
+                                      double produtividadeValor,
+                                      double custoTotalProducao,
+                                      double custoUnitario,
+                                      double custoTrabalho,
+                                      double custoMaquinas,
+                                      double custoMateriaPrima) {
 
-        public double getCustoMateriaPrima() { return custoMateriaPrima; }
-        public void setCustoMateriaPrima(double custoMateriaPrima) { this.custoMateriaPrima = custoMateriaPrima; }
+        // Resultado para entradas inválidas (tudo zero), compartilhado entre as chamadas
+        public static final ProdutividadeResult VAZIO = new ProdutividadeResult(0, 0, 0, 0, 0, 0, 0);
     }
 }
@@ -0,0 +1,211 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.JobRecalculo;
+import com.empresa.aplicacao.models.Gestao;
+import com.empresa.aplicacao.models.GestaoHistorico;
+import com.empresa.aplicacao.repositories.GestaoHistoricoRepository;
+import com.empresa.aplicacao.repositories.GestaoRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recálculo do histórico de gestão fora da thread da requisição.
+ *
+ * Cada pedido vira um job (consultável pelo id) e entra numa fila de espera. Um único
+ * trabalhador aguarda historico.recalculo.agrupar-ms, pega todos os pedidos pendentes,
+ * calcula os indicadores uma vez com a previsão de gastos mais recente e grava um único
+ * GestaoHistorico para o grupo. Pedidos que chegam durante o cálculo formam o próximo
+ * grupo. O recálculo também roda em historico.recalculo.cron com a previsão vigente.
+ *
+ * Pedidos, previsão e jobs são separados por tenant (ver TenantContexto): cada grupo é
+ * calculado e gravado como o tenant que o pediu, e um job só é visível ao próprio tenant.
+ */
+@Service
+public class HistoricoRecalculoService {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoricoRecalculoService.class);
+
+    @Autowired
+    private CalculoService calculoService;
+
+    @Autowired
+    private GestaoRepository gestaoRepository;
+
+    @Autowired
+    private GestaoHistoricoRepository gestaoHistoricoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${historico.recalculo.agrupar-ms:200}")
+    private long agruparMs;
+
+    @Value("${historico.recalculo.retencao-jobs:1h}")
+    private Duration retencaoJobs;
+
+    @Value("${historico.recalculo.max-jobs:100000}")
+    private long maxJobs;
+
+    // Chave: tenant + ":" + id do job
+    private Cache<String, JobRecalculo> jobs;
+    private ExecutorService executor;
+
+    // Protegidos por this; por tenant
+    private Map<String, List<JobRecalculo>> pendentes = new LinkedHashMap<>();
+    private final Map<String, Double> previsaoGastos = new HashMap<>();
+    private boolean emExecucao;
+
+    @PostConstruct
+    void iniciar() {
+        jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retencaoJobs)
+                .maximumSize(maxJobs)
+                .build();
+
+        // Um trabalhador e no máximo uma tarefa na fila: só é submetida quando não há outra em execução
+        executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), tarefa -> {
+                    Thread t = new Thread(tarefa, "historico-recalculo");
+                    t.setDaemon(true);
+                    return t;
+                }), "historico.recalculo");
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+    }
+
+    /**
+     * Agenda o recálculo do tenant atual com a previsão de gastos informada e devolve o job criado.
+     */
+    public JobRecalculo solicitar(double previsaoGastos) {
+        String tenant = TenantContexto.atual();
+        JobRecalculo job = new JobRecalculo(UUID.randomUUID().toString(), JobRecalculo.Status.PENDENTE,
+                Instant.now(), null, null, null, null);
+        jobs.put(chave(tenant, job.id()), job);
+
+        synchronized (this) {
+            pendentes.computeIfAbsent(tenant, t -> new ArrayList<>()).add(job);
+            this.previsaoGastos.put(tenant, previsaoGastos);
+            if (!emExecucao) {
+                try {
+                    executor.execute(this::executar);
+                    emExecucao = true;
+                } catch (RejectedExecutionException e) {
+                    // Aplicação encerrando
+                    pendentes.get(tenant).remove(job);
+                    job = job.falhou("recálculo indisponível");
+                    jobs.put(chave(tenant, job.id()), job);
+                }
+            }
+        }
+        return job;
+    }
+
+    public JobRecalculo consultar(String id) {
+        return jobs.getIfPresent(chave(TenantContexto.atual(), id));
+    }
+
+    private static String chave(String tenant, String id) {
+        return tenant + ":" + id;
+    }
+
+    @Scheduled(cron = "${historico.recalculo.cron:-}")
+    public void recalcularAgendado() {
+        for (String tenant : gestaoRepository.listarTenants()) {
+            TenantContexto.executar(tenant, () -> gestaoRepository.findFirstByOrderByIdAsc()
+                    .map(Gestao::getPrevisaoGastos)
+                    .ifPresent(this::solicitar));
+        }
+    }
+
+    private void executar() {
+        Map<String, List<JobRecalculo>> grupos = Map.of();
+        try {
+            while (true) {
+                aguardarAgrupamento();
+
+                Map<String, Double> gastos = new HashMap<>();
+                synchronized (this) {
+                    if (pendentes.isEmpty()) {
+                        emExecucao = false;
+                        return;
+                    }
+                    grupos = pendentes;
+                    pendentes = new LinkedHashMap<>();
+                    grupos.keySet().forEach(tenant -> gastos.put(tenant, previsaoGastos.remove(tenant)));
+                }
+
+                grupos.forEach((tenant, grupo) ->
+                        TenantContexto.executar(tenant, () -> recalcular(tenant, grupo, gastos.get(tenant))));
+            }
+        } catch (Throwable e) {
+            // Error (OOM, StackOverflow...) derruba o trabalhador: os jobs do grupo em andamento
+            // falham e o próximo solicitar() agenda um trabalhador novo para os pendentes
+            log.error("Trabalhador do recálculo do histórico interrompido", e);
+            grupos.forEach((tenant, grupo) -> grupo.forEach(job -> {
+                JobRecalculo atual = jobs.getIfPresent(chave(tenant, job.id()));
+                if (atual != null && (atual.status() == JobRecalculo.Status.PENDENTE
+                        || atual.status() == JobRecalculo.Status.EXECUTANDO)) {
+                    jobs.put(chave(tenant, job.id()), atual.falhou("recálculo interrompido: " + e));
+                }
+            }));
+            synchronized (this) {
+                emExecucao = false;
+            }
+            throw e;
+        }
+    }
+
+    // Roda como o tenant do grupo: cálculo e gravação ficam no ledger dele
+    private void recalcular(String tenant, List<JobRecalculo> grupo, double gastos) {
+        if (grupo.isEmpty()) return;
+
+        grupo.forEach(job -> jobs.put(chave(tenant, job.id()), job.executando()));
+        try {
+            IndicadoresSnapshot snapshot = calculoService.calcularIndicadores(gastos);
+            GestaoHistorico hist = gestaoHistoricoRepository.save(
+                    new GestaoHistorico(LocalDate.now(), snapshot.cicloCaixa(), snapshot.saldoMinimo()));
+            grupo.forEach(job -> jobs.put(chave(tenant, job.id()), job.concluido(hist.getId(), grupo.size())));
+        } catch (RuntimeException e) {
+            log.error("Falha no recálculo do histórico do tenant {} ({} pedidos)", tenant, grupo.size(), e);
+            grupo.forEach(job -> jobs.put(chave(tenant, job.id()), job.falhou(e.getMessage())));
+        }
+    }
+
+    private void aguardarAgrupamento() {
+        if (agruparMs <= 0) return;
+        try {
+            Thread.sleep(agruparMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.PontoSerie;
+import com.empresa.aplicacao.dto.SerieHistorico;
+import com.empresa.aplicacao.models.GestaoHistorico;
+import com.empresa.aplicacao.repositories.GestaoHistoricoRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Série temporal do histórico de gestão: consulta por intervalo de dataCalculo reduzida no
+ * servidor (min/max/média por balde ou LTTB) e compactação dos pontos antigos.
+ *
+ * A consulta lê o período em streaming (desanexando cada linha) e guarda só os baldes, então memória e tamanho da
+ * resposta dependem de "pontos", não da quantidade de registros. A compactação mantém o
+ * volume lido limitado: registros mais antigos que historico.retencao-diaria-dias viram um
+ * ponto por dia e, depois de historico.retencao-mensal-dias, um ponto por mês (média
+ * ponderada pela quantidade de pontos originais, preservando mínimo e máximo).
+ */
+@Service
+public class HistoricoSerieService {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoricoSerieService.class);
+
+    /** Baldes finos por ponto pedido usados como candidatos do LTTB. */
+    private static final int CANDIDATOS_POR_PONTO = 10;
+
+    @Autowired
+    private GestaoHistoricoRepository gestaoHistoricoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${historico.serie.max-pontos:2000}")
+    private int maxPontos;
+
+    @Value("${historico.retencao-diaria-dias:90}")
+    private int retencaoDiaria;
+
+    @Value("${historico.retencao-mensal-dias:365}")
+    private int retencaoMensal;
+
+    private final ReentrantLock compactacao = new ReentrantLock();
+
+    public record Compactacao(int dias, int meses, long removidos) {}
+
+    // ---------------------------
+    // --- CONSULTA ---
+    // ---------------------------
+
+    public SerieHistorico consultar(LocalDate de, LocalDate ate, int pontos, String metodo, String campo) {
+        String m = metodo == null ? "minmaxavg" : metodo.trim().toLowerCase(Locale.ROOT);
+        if (!m.equals("minmaxavg") && !m.equals("lttb")) throw new IllegalArgumentException("método desconhecido: " + metodo);
+        String c = campo == null ? "saldoMinimo" : campo.trim();
+        if (!c.equals("saldoMinimo") && !c.equals("cicloCaixa")) throw new IllegalArgumentException("campo desconhecido: " + campo);
+        if (pontos < 3 || pontos > maxPontos) throw new IllegalArgumentException("pontos deve estar entre 3 e " + maxPontos);
+
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        return leitura.execute(status -> {
+            LocalDate inicio = de != null ? de : gestaoHistoricoRepository.findFirstByOrderByDataCalculoAsc()
+                    .map(GestaoHistorico::getDataCalculo).orElse(null);
+            LocalDate fim = ate != null ? ate : gestaoHistoricoRepository.findFirstByOrderByDataCalculoDesc()
+                    .map(GestaoHistorico::getDataCalculo).orElse(null);
+            if (inicio == null || fim == null || inicio.isAfter(fim)) {
+                if (de != null && ate != null) throw new IllegalArgumentException("período inválido");
+                return new SerieHistorico(inicio, fim, m, c, 0, List.of());
+            }
+
+            long totalDias = ChronoUnit.DAYS.between(inicio, fim) + 1;
+            try (Stream<GestaoHistorico> linhas = gestaoHistoricoRepository.streamSerie(inicio, fim)) {
+                return m.equals("lttb")
+                        ? lttb(linhas, inicio, fim, totalDias, pontos, c.equals("saldoMinimo"))
+                        : minMaxMedia(linhas, inicio, fim, totalDias, pontos, c);
+            }
+        });
+    }
+
+    private SerieHistorico minMaxMedia(Stream<GestaoHistorico> linhas, LocalDate de, LocalDate ate,
+                                       long totalDias, int pontos, String campo) {
+        int baldes = (int) Math.min(pontos, totalDias);
+        long[] qtd = new long[baldes];
+        double[] somaCiclo = new double[baldes];
+        double[] somaSaldo = new double[baldes];
+        double[] minCiclo = new double[baldes];
+        double[] maxCiclo = new double[baldes];
+        double[] minSaldo = new double[baldes];
+        double[] maxSaldo = new double[baldes];
+        Arrays.fill(minCiclo, Double.POSITIVE_INFINITY);
+        Arrays.fill(minSaldo, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxCiclo, Double.NEGATIVE_INFINITY);
+        Arrays.fill(maxSaldo, Double.NEGATIVE_INFINITY);
+
+        long registros = 0;
+        for (GestaoHistorico h : (Iterable<GestaoHistorico>) linhas::iterator) {
+            int b = balde(h.getDataCalculo(), de, totalDias, baldes);
+            int n = h.getPontos();
+            registros += n;
+            qtd[b] += n;
+            somaCiclo[b] += h.getCicloCaixa() * n;
+            somaSaldo[b] += h.getSaldoMinimo() * n;
+            minCiclo[b] = Math.min(minCiclo[b], h.getCicloCaixaMin());
+            maxCiclo[b] = Math.max(maxCiclo[b], h.getCicloCaixaMax());
+            minSaldo[b] = Math.min(minSaldo[b], h.getSaldoMinimoMin());
+            maxSaldo[b] = Math.max(maxSaldo[b], h.getSaldoMinimoMax());
+            entityManager.detach(h);
+        }
+
+        List<PontoSerie> serie = new ArrayList<>();
+        for (int b = 0; b < baldes; b++) {
+            if (qtd[b] == 0) continue;
+            // Primeiro dia do balde: menor d com d * baldes / totalDias == b
+            LocalDate data = de.plusDays((b * totalDias + baldes - 1) / baldes);
+            serie.add(new PontoSerie(data, qtd[b],
+                    somaCiclo[b] / qtd[b], minCiclo[b], maxCiclo[b],
+                    somaSaldo[b] / qtd[b], minSaldo[b], maxSaldo[b]));
+        }
+        return new SerieHistorico(de, ate, "minmaxavg", campo, registros, serie);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets sobre candidatos limitados: em cada balde fino guarda o
+     * ponto de mínimo e o de máximo do campo, o que preserva picos sem manter a série inteira.
+     */
+    private SerieHistorico lttb(Stream<GestaoHistorico> linhas, LocalDate de, LocalDate ate,
+                                long totalDias, int pontos, boolean saldo) {
+        int baldes = (int) Math.min((long) pontos * CANDIDATOS_POR_PONTO, totalDias);
+        long[] diaMin = new long[baldes];
+        long[] diaMax = new long[baldes];
+        double[] valorMin = new double[baldes];
+        double[] valorMax = new double[baldes];
+        boolean[] usado = new boolean[baldes];
+
+        long registros = 0;
+        for (GestaoHistorico h : (Iterable<GestaoHistorico>) linhas::iterator) {
+            int b = balde(h.getDataCalculo(), de, totalDias, baldes);
+            long dia = h.getDataCalculo().toEpochDay();
+            double min = saldo ? h.getSaldoMinimoMin() : h.getCicloCaixaMin();
+            double max = saldo ? h.getSaldoMinimoMax() : h.getCicloCaixaMax();
+            registros += h.getPontos();
+            if (!usado[b] || min < valorMin[b]) { valorMin[b] = min; diaMin[b] = dia; }
+            if (!usado[b] || max > valorMax[b]) { valorMax[b] = max; diaMax[b] = dia; }
+            usado[b] = true;
+            entityManager.detach(h);
+        }
+
+        // Até dois candidatos por balde fino (mínimo e máximo), em ordem de data
+        long[] x = new long[2 * baldes];
+        double[] y = new double[2 * baldes];
+        int n = 0;
+        for (int b = 0; b < baldes; b++) {
+            if (!usado[b]) continue;
+            boolean minPrimeiro = diaMin[b] <= diaMax[b];
+            x[n] = minPrimeiro ? diaMin[b] : diaMax[b];
+            y[n++] = minPrimeiro ? valorMin[b] : valorMax[b];
+            if (diaMin[b] != diaMax[b] || valorMin[b] != valorMax[b]) {
+                x[n] = minPrimeiro ? diaMax[b] : diaMin[b];
+                y[n++] = minPrimeiro ? valorMax[b] : valorMin[b];
+            }
+        }
+
+        List<PontoSerie> serie = new ArrayList<>();
+        for (int i : selecionarLttb(x, y, n, pontos)) {
+            LocalDate data = LocalDate.ofEpochDay(x[i]);
+            serie.add(saldo
+                    ? new PontoSerie(data, null, null, null, null, y[i], null, null)
+                    : new PontoSerie(data, null, y[i], null, null, null, null, null));
+        }
+        return new SerieHistorico(de, ate, "lttb", saldo ? "saldoMinimo" : "cicloCaixa", registros, serie);
+    }
+
+    static int[] selecionarLttb(long[] x, double[] y, int n, int limite) {
+        if (n <= limite) {
+            int[] todos = new int[n];
+            for (int i = 0; i < n; i++) todos[i] = i;
+            return todos;
+        }
+
+        int[] escolhidos = new int[limite];
+        double passo = (double) (n - 2) / (limite - 2);
+        int a = 0;
+        escolhidos[0] = 0;
+        for (int i = 0; i < limite - 2; i++) {
+            // Média do próximo balde (terceiro vértice do triângulo)
+            int inicioProx = (int) Math.floor((i + 1) * passo) + 1;
+            int fimProx = Math.min((int) Math.floor((i + 2) * passo) + 1, n);
+            double mediaX = 0, mediaY = 0;
+            for (int j = inicioProx; j < fimProx; j++) {
+                mediaX += x[j];
+                mediaY += y[j];
+            }
+            int qtdProx = Math.max(1, fimProx - inicioProx);
+            mediaX /= qtdProx;
+            mediaY /= qtdProx;
+
+            double ax = x[a], ay = y[a];
+            int inicio = (int) Math.floor(i * passo) + 1;
+            int fim = (int) Math.floor((i + 1) * passo) + 1;
+            double maiorArea = -1;
+            int escolhido = inicio;
+            for (int j = inicio; j < fim; j++) {
+                double area = Math.abs((ax - mediaX) * (y[j] - ay) - (ax - x[j]) * (mediaY - ay));
+                if (area > maiorArea) {
+                    maiorArea = area;
+                    escolhido = j;
+                }
+            }
+            escolhidos[i + 1] = escolhido;
+            a = escolhido;
+        }
+        escolhidos[limite - 1] = n - 1;
+        return escolhidos;
+    }
+
+    private static int balde(LocalDate data, LocalDate de, long totalDias, int baldes) {
+        return (int) (ChronoUnit.DAYS.between(de, data) * baldes / totalDias);
+    }
+
+    // ---------------------------
+    // --- COMPACTAÇÃO ---
+    // ---------------------------
+
+    @Scheduled(cron = "${historico.compactacao.cron:0 30 3 * * *}")
+    public void compactarAgendado() {
+        for (String tenant : gestaoHistoricoRepository.listarTenants()) {
+            Compactacao c = TenantContexto.executar(tenant, this::compactar);
+            if (c.removidos() > 0) {
+                log.info("Histórico do tenant {} compactado: {} dias, {} meses, {} registros removidos",
+                        tenant, c.dias(), c.meses(), c.removidos());
+            }
+        }
+    }
+
+    /**
+     * Compacta o histórico do tenant atual.
+     */
+    public Compactacao compactar() {
+        compactacao.lock();
+        try {
+            LocalDate hoje = LocalDate.now();
+            long removidos = 0;
+
+            // Um ponto por dia para os dias fora da retenção diária
+            List<LocalDate> dias = gestaoHistoricoRepository.diasParaCompactar(hoje.minusDays(retencaoDiaria));
+            for (LocalDate dia : dias) {
+                removidos += mesclar(dia, dia, dia);
+            }
+
+            // Um ponto por mês só para meses inteiros fora da retenção mensal
+            LocalDate limiteMensal = hoje.minusDays(retencaoMensal).withDayOfMonth(1);
+            List<LocalDate> meses = gestaoHistoricoRepository.mesesParaCompactar(limiteMensal);
+            for (LocalDate dia : meses) {
+                LocalDate inicio = dia.withDayOfMonth(1);
+                removidos += mesclar(inicio, inicio.plusMonths(1).minusDays(1), inicio);
+            }
+            return new Compactacao(dias.size(), meses.size(), removidos);
+        } finally {
+            compactacao.unlock();
+        }
+    }
+
+    /** Substitui os registros do intervalo por um único ponto agregado; devolve quantos sumiram. */
+    private int mesclar(LocalDate de, LocalDate ate, LocalDate data) {
+        Integer removidos = new TransactionTemplate(transactionManager).execute(status -> {
+            List<GestaoHistorico> linhas = gestaoHistoricoRepository.buscarIntervalo(de, ate);
+            if (linhas.size() < 2) return 0;
+
+            int qtd = 0;
+            double somaCiclo = 0, somaSaldo = 0;
+            double minCiclo = Double.POSITIVE_INFINITY, maxCiclo = Double.NEGATIVE_INFINITY;
+            double minSaldo = Double.POSITIVE_INFINITY, maxSaldo = Double.NEGATIVE_INFINITY;
+            for (GestaoHistorico h : linhas) {
+                int n = h.getPontos();
+                qtd += n;
+                somaCiclo += h.getCicloCaixa() * n;
+                somaSaldo += h.getSaldoMinimo() * n;
+                minCiclo = Math.min(minCiclo, h.getCicloCaixaMin());
+                maxCiclo = Math.max(maxCiclo, h.getCicloCaixaMax());
+                minSaldo = Math.min(minSaldo, h.getSaldoMinimoMin());
+                maxSaldo = Math.max(maxSaldo, h.getSaldoMinimoMax());
+            }
+
+            gestaoHistoricoRepository.deleteAllInBatch(linhas);
+            gestaoHistoricoRepository.save(new GestaoHistorico(data, qtd,
+                    somaCiclo / qtd, minCiclo, maxCiclo,
+                    somaSaldo / qtd, minSaldo, maxSaldo));
+            return linhas.size() - 1;
+        });
+        return removidos == null ? 0 : removidos;
+    }
+}
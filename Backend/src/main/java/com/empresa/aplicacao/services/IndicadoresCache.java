@@ -0,0 +1,179 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.eventos.EntradaEvento;
+import com.empresa.aplicacao.eventos.EntradasImportadas;
+import com.empresa.aplicacao.eventos.VendaEvento;
+import com.empresa.aplicacao.eventos.VendasImportadas;
+import com.empresa.aplicacao.models.Gestao;
+import com.empresa.aplicacao.repositories.GestaoRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache (Caffeine) dos indicadores servidos em /api/gestao/calculos.
+ *
+ * - TTL e tamanho máximo configuráveis;
+ * - refreshAfterWrite: após o intervalo de revalidação a leitura devolve o valor atual
+ *   e recalcula em segundo plano (stale-while-revalidate);
+ * - gravações em Entradas, Vendas e Gestão invalidam o cache (ou apenas disparam a
+ *   revalidação, se calculo.cache.revalidar-em-escrita=true);
+ * - o JSON do valor vigente é serializado uma vez e reutilizado até o valor mudar;
+ * - uma entrada por tenant (ver TenantContexto), calculada e revalidada como aquele tenant.
+ */
+@Component
+public class IndicadoresCache {
+
+    @Autowired
+    private CalculoService calculoService;
+
+    @Autowired
+    private GestaoRepository gestaoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${calculo.cache.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${calculo.cache.revalidar-apos:5s}")
+    private Duration revalidarApos;
+
+    @Value("${calculo.cache.tamanho-maximo:1000}")
+    private long tamanhoMaximo;
+
+    @Value("${calculo.cache.revalidar-em-escrita:false}")
+    private boolean revalidarEmEscrita;
+
+    // Chave: tenant
+    private LoadingCache<String, IndicadoresSnapshot> cache;
+
+    // JSON já serializado do último valor servido a cada tenant (comparado por identidade)
+    private final Map<String, JsonSerializado> json = new ConcurrentHashMap<>();
+
+    private record JsonSerializado(IndicadoresSnapshot snapshot, byte[] bytes) {
+    }
+
+    @PostConstruct
+    void iniciar() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(revalidarApos)
+                .recordStats()
+                .removalListener((String chave, IndicadoresSnapshot valor, RemovalCause causa) -> json.remove(chave))
+                // A revalidação roda em outra thread: o tenant vem da chave
+                .build(chave -> TenantContexto.executar(chave, this::carregar));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "indicadores");
+    }
+
+    /**
+     * Indicadores do tenant atual calculados com a previsão de gastos vigente.
+     */
+    public IndicadoresSnapshot atual() {
+        return cache.get(TenantContexto.atual());
+    }
+
+    /**
+     * Indicadores vigentes já em JSON. Os bytes são compartilhados: não alterar.
+     */
+    public byte[] atualJson() {
+        String tenant = TenantContexto.atual();
+        IndicadoresSnapshot snapshot = cache.get(tenant);
+        JsonSerializado atual = json.get(tenant);
+        if (atual == null || atual.snapshot() != snapshot) {
+            try {
+                atual = new JsonSerializado(snapshot, objectMapper.writeValueAsBytes(snapshot));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Falha ao serializar indicadores", e);
+            }
+            json.put(tenant, atual);
+        }
+        return atual.bytes();
+    }
+
+    private IndicadoresSnapshot carregar() {
+        // Recarregado logo após gravar a gestão (invalidar): lê do primário
+        double previsaoGastos = RoteamentoDataSource.noPrimario(gestaoRepository::findFirstByOrderByIdAsc)
+                .map(Gestao::getPrevisaoGastos)
+                .orElse(0.0);
+        return calculoService.calcularIndicadores(previsaoGastos);
+    }
+
+    public void invalidar() {
+        invalidar(TenantContexto.atual());
+    }
+
+    private void invalidar(String tenant) {
+        if (revalidarEmEscrita) {
+            if (cache.getIfPresent(tenant) != null) cache.refresh(tenant);
+        } else {
+            cache.invalidate(tenant);
+        }
+    }
+
+    // Depois do IndicadoresIncrementais: o recálculo já vê o delta desta gravação
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aoAlterarEntrada(EntradaEvento evento) {
+        String tenant = evento.entrada().getTenantId();
+        invalidar(tenant != null ? tenant : TenantContexto.atual());
+    }
+
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aoAlterarVenda(VendaEvento evento) {
+        String tenant = evento.venda().getTenantId();
+        invalidar(tenant != null ? tenant : TenantContexto.atual());
+    }
+
+    // Importação em lote: uma invalidação por bloco
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aoImportarEntradas(EntradasImportadas evento) {
+        invalidar(evento.tenant());
+    }
+
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aoImportarVendas(VendasImportadas evento) {
+        invalidar(evento.tenant());
+    }
+
+    public Map<String, Object> estatisticas() {
+        CacheStats stats = cache.stats();
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("tamanho", cache.estimatedSize());
+        resultado.put("acertos", stats.hitCount());
+        resultado.put("falhas", stats.missCount());
+        resultado.put("taxaAcerto", stats.hitRate());
+        resultado.put("carregamentos", stats.loadCount());
+        resultado.put("falhasCarregamento", stats.loadFailureCount());
+        resultado.put("tempoMedioCarregamentoMs", stats.averageLoadPenalty() / 1_000_000.0);
+        resultado.put("remocoes", stats.evictionCount());
+        return resultado;
+    }
+}
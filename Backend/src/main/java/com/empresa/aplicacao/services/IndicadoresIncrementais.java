@@ -0,0 +1,393 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.eventos.EntradaEvento;
+import com.empresa.aplicacao.eventos.EntradasImportadas;
+import com.empresa.aplicacao.eventos.TipoEvento;
+import com.empresa.aplicacao.eventos.VendaEvento;
+import com.empresa.aplicacao.eventos.VendasImportadas;
+import com.empresa.aplicacao.models.AgregadoProduto;
+import com.empresa.aplicacao.models.AgregadoProdutoId;
+import com.empresa.aplicacao.models.AgregadoTotais;
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Venda;
+import com.empresa.aplicacao.repositories.AgregadoPrazo;
+import com.empresa.aplicacao.repositories.AgregadoProdutoDias;
+import com.empresa.aplicacao.repositories.AgregadoProdutoRepository;
+import com.empresa.aplicacao.repositories.AgregadoTotaisRepository;
+import com.empresa.aplicacao.repositories.EntradaRepository;
+import com.empresa.aplicacao.repositories.VendaRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Acumuladores dos indicadores (PMRE, PMRV, PMPF, ver Acumuladores) mantidos a cada
+ * gravação/remoção de Entrada e Venda, para que a leitura seja O(1).
+ *
+ * O estado é separado por tenant (ver TenantContexto): cada um é carregado do snapshot ou
+ * reconstruído a partir do banco na primeira leitura (ou sob demanda), e o snapshot de todos
+ * é gravado periodicamente nas tabelas AgregadoTotais/AgregadoProduto.
+ */
+@Component
+public class IndicadoresIncrementais {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicadoresIncrementais.class);
+
+    @Autowired
+    private EntradaRepository entradaRepository;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private AgregadoProdutoRepository agregadoProdutoRepository;
+
+    @Autowired
+    private AgregadoTotaisRepository agregadoTotaisRepository;
+
+    @Value("${calculo.indicadores.reconstruir-na-inicializacao:true}")
+    private boolean reconstruirNaInicializacao;
+
+    private final ReentrantLock persistencia = new ReentrantLock();
+
+    // Estado de cada tenant, carregado na primeira leitura (snapshot ou reconstrução)
+    private final Map<String, Estado> estados = new ConcurrentHashMap<>();
+
+    /**
+     * Acumuladores de um tenant. Os métodos de alteração rodam sincronizados no próprio estado.
+     */
+    private static final class Estado extends Acumuladores {
+
+        // Escritas no ledger usam a trava compartilhada; a reconstrução usa a exclusiva,
+        // para que nenhuma gravação seja contada pela consulta e depois aplicada de novo.
+        final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+        final Set<Integer> produtosAlterados = new HashSet<>();
+        boolean alterado;
+        boolean snapshotCompleto;
+
+        // Antes de carregado, eventos são ignorados: a carga já lê o banco com eles
+        volatile boolean carregado;
+        volatile Totais totais = Totais.VAZIO;
+
+        synchronized void aplicarEntrada(Entrada e, int sinal) {
+            aplicarEntrada(e.getProdutoId(), e.getDataEntrada(), e.getPrazoPagto(), sinal);
+            publicar();
+        }
+
+        synchronized void aplicarVenda(Venda v, int sinal) {
+            aplicarVenda(v.getProdutoId(), v.getDataVenda(), v.getPrazoPagto(), sinal);
+            publicar();
+        }
+
+        // Bloco da importação: um único publicar() no fim
+        synchronized void aplicarEntradas(List<Entrada> entradas) {
+            for (Entrada e : entradas) aplicarEntrada(e.getProdutoId(), e.getDataEntrada(), e.getPrazoPagto(), 1);
+            publicar();
+        }
+
+        synchronized void aplicarVendas(List<Venda> vendas) {
+            for (Venda v : vendas) aplicarVenda(v.getProdutoId(), v.getDataVenda(), v.getPrazoPagto(), 1);
+            publicar();
+        }
+
+        @Override
+        void produtoAlterado(int id) {
+            produtosAlterados.add(id);
+            alterado = true;
+        }
+
+        void publicar() {
+            totais = totaisAtuais();
+        }
+    }
+
+    /**
+     * Totais imutáveis publicados após cada alteração (leitura sem trava).
+     */
+    public record Totais(long qtdEntradas, long somaPrazoEntradas,
+                         long qtdVendas, long somaPrazoVendas,
+                         long somaDiasPares, long qtdPares) {
+
+        static final Totais VAZIO = new Totais(0, 0, 0, 0, 0, 0);
+
+        public double pmre() {
+            return qtdPares > 0 ? (double) somaDiasPares / qtdPares : 0;
+        }
+
+        public double pmrv() {
+            return qtdVendas > 0 ? (double) somaPrazoVendas / qtdVendas : 0;
+        }
+
+        public double pmpf() {
+            return qtdEntradas > 0 ? (double) somaPrazoEntradas / qtdEntradas : 0;
+        }
+    }
+
+    /**
+     * Totais do tenant atual (ver TenantContexto); na primeira chamada do tenant carrega o estado.
+     */
+    public Totais totais() {
+        Estado estado = estado(TenantContexto.atual());
+        if (!estado.carregado) carregar(TenantContexto.atual(), estado);
+        return estado.totais;
+    }
+
+    private Estado estado(String tenant) {
+        return estados.computeIfAbsent(tenant, t -> new Estado());
+    }
+
+    /**
+     * Executa uma gravação no ledger do tenant atual (save/delete + publicação do evento) sem
+     * concorrer com uma reconstrução em andamento.
+     */
+    public <T> T comEscrita(Supplier<T> escrita) {
+        ReentrantReadWriteLock trava = estado(TenantContexto.atual()).trava;
+        trava.readLock().lock();
+        try {
+            return escrita.get();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public void comEscrita(Runnable escrita) {
+        comEscrita(() -> {
+            escrita.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executa uma leitura de reconstrução sem nenhuma gravação do ledger do tenant atual em
+     * andamento (usado por outros componentes mantidos pelos mesmos eventos).
+     */
+    public <T> T semEscritasConcorrentes(Supplier<T> leitura) {
+        ReentrantReadWriteLock trava = estado(TenantContexto.atual()).trava;
+        trava.writeLock().lock();
+        try {
+            return leitura.get();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Antes dos demais ouvintes: o IndicadoresCache recalcula a partir destes totais
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoAlterarEntrada(EntradaEvento evento) {
+        Estado estado = estados.get(tenantDe(evento.entrada().getTenantId()));
+        if (estado != null && estado.carregado) {
+            estado.aplicarEntrada(evento.entrada(), evento.tipo() == TipoEvento.CRIACAO ? 1 : -1);
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoAlterarVenda(VendaEvento evento) {
+        Estado estado = estados.get(tenantDe(evento.venda().getTenantId()));
+        if (estado != null && estado.carregado) {
+            estado.aplicarVenda(evento.venda(), evento.tipo() == TipoEvento.CRIACAO ? 1 : -1);
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoImportarEntradas(EntradasImportadas evento) {
+        Estado estado = estados.get(evento.tenant());
+        if (estado != null && estado.carregado) estado.aplicarEntradas(evento.entradas());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoImportarVendas(VendasImportadas evento) {
+        Estado estado = estados.get(evento.tenant());
+        if (estado != null && estado.carregado) estado.aplicarVendas(evento.vendas());
+    }
+
+    // Entidades gravadas pelo Hibernate já trazem o tenant; as montadas à mão, o da thread
+    private static String tenantDe(String tenantDaEntidade) {
+        return tenantDaEntidade != null ? tenantDaEntidade : TenantContexto.atual();
+    }
+
+    // ---------------------------
+    // --- RECONSTRUÇÃO ---
+    // ---------------------------
+
+    private void carregar(String tenant, Estado estado) {
+        estado.trava.writeLock().lock();
+        try {
+            if (estado.carregado) return;
+            // Os acumuladores seguem pelas gravações a partir daqui: a base não pode vir de uma réplica atrasada
+            RoteamentoDataSource.noPrimario(() -> {
+                if (reconstruirNaInicializacao || !carregarSnapshot(tenant, estado)) {
+                    reconstruirDoPrimario(tenant, estado);
+                }
+                return null;
+            });
+        } finally {
+            estado.trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recalcula todos os acumuladores do tenant atual a partir das consultas agregadas do banco.
+     */
+    public Totais reconstruir() {
+        String tenant = TenantContexto.atual();
+        Estado estado = estado(tenant);
+        estado.trava.writeLock().lock();
+        try {
+            return RoteamentoDataSource.noPrimario(() -> reconstruirDoPrimario(tenant, estado));
+        } finally {
+            estado.trava.writeLock().unlock();
+        }
+    }
+
+    // Chamado com a trava exclusiva do estado
+    private Totais reconstruirDoPrimario(String tenant, Estado estado) {
+        // agregarPrazo é JPQL: o filtro de tenant vem da sessão
+        AgregadoPrazo prazoEntradas = TenantContexto.executar(tenant, () -> entradaRepository.agregarPrazo());
+        AgregadoPrazo prazoVendas = TenantContexto.executar(tenant, () -> vendaRepository.agregarPrazo());
+        List<AgregadoProdutoDias> diasEntradas = entradaRepository.agregarDiasPorProduto(tenant);
+        List<AgregadoProdutoDias> diasVendas = vendaRepository.agregarDiasPorProduto(tenant);
+
+        synchronized (estado) {
+            estado.limparProdutos();
+            for (AgregadoProdutoDias e : diasEntradas) {
+                long[] p = estado.produtos.computeIfAbsent(e.getProdutoId().intValue(), k -> new long[4]);
+                p[Acumuladores.QTD_ENTRADAS] = e.getQuantidade().longValue();
+                p[Acumuladores.SOMA_DIAS_ENTRADAS] = e.getSomaDias().longValue();
+            }
+            for (AgregadoProdutoDias v : diasVendas) {
+                long[] p = estado.produtos.computeIfAbsent(v.getProdutoId().intValue(), k -> new long[4]);
+                p[Acumuladores.QTD_VENDAS] = v.getQuantidade().longValue();
+                p[Acumuladores.SOMA_DIAS_VENDAS] = v.getSomaDias().longValue();
+            }
+
+            estado.qtdEntradas = prazoEntradas.getQuantidade().longValue();
+            estado.somaPrazoEntradas = prazoEntradas.getSomaPrazo().longValue();
+            estado.qtdVendas = prazoVendas.getQuantidade().longValue();
+            estado.somaPrazoVendas = prazoVendas.getSomaPrazo().longValue();
+            estado.recalcularPares();
+
+            estado.produtosAlterados.clear();
+            estado.snapshotCompleto = true;
+            estado.alterado = true;
+            estado.publicar();
+            estado.carregado = true;
+
+            log.info("Indicadores do tenant {} reconstruídos: {} entradas, {} vendas, {} produtos",
+                    tenant, estado.qtdEntradas, estado.qtdVendas, estado.contarProdutos());
+            return estado.totais;
+        }
+    }
+
+    // Chamado com a trava exclusiva do estado
+    private boolean carregarSnapshot(String tenant, Estado estado) {
+        Optional<AgregadoTotais> snapshot = agregadoTotaisRepository.findById(tenant);
+        if (snapshot.isEmpty()) return false;
+
+        List<AgregadoProduto> linhas = agregadoProdutoRepository.findByTenantId(tenant);
+        // Snapshot sem linhas por produto (ex.: gravado antes do catálogo) não é confiável
+        if (linhas.isEmpty() && snapshot.get().getQtdPares() > 0) return false;
+
+        synchronized (estado) {
+            AgregadoTotais t = snapshot.get();
+            estado.limparProdutos();
+            for (AgregadoProduto linha : linhas) {
+                estado.definirProduto(linha.getProdutoId(), linha.getQtdEntradas(), linha.getSomaDiasEntradas(),
+                        linha.getQtdVendas(), linha.getSomaDiasVendas());
+            }
+
+            estado.qtdEntradas = t.getQtdEntradas();
+            estado.somaPrazoEntradas = t.getSomaPrazoEntradas();
+            estado.qtdVendas = t.getQtdVendas();
+            estado.somaPrazoVendas = t.getSomaPrazoVendas();
+            estado.somaDiasPares = t.getSomaDiasPares();
+            estado.qtdPares = t.getQtdPares();
+            estado.publicar();
+            estado.carregado = true;
+
+            log.info("Indicadores do tenant {} carregados do snapshot de {}", tenant, t.getAtualizadoEm());
+            return true;
+        }
+    }
+
+    // ---------------------------
+    // --- SNAPSHOT ---
+    // ---------------------------
+
+    @Scheduled(fixedDelayString = "${calculo.indicadores.snapshot-intervalo-ms:60000}")
+    @PreDestroy
+    public void persistirSnapshot() {
+        persistencia.lock();
+        try {
+            estados.forEach(this::persistirSnapshot);
+        } finally {
+            persistencia.unlock();
+        }
+    }
+
+    private void persistirSnapshot(String tenant, Estado estado) {
+        List<AgregadoProduto> salvar = new ArrayList<>();
+        List<AgregadoProdutoId> remover = new ArrayList<>();
+        AgregadoTotais linhaTotais;
+        boolean completo;
+
+        synchronized (estado) {
+            if (!estado.carregado || !estado.alterado) return;
+
+            completo = estado.snapshotCompleto;
+            for (int id : completo ? estado.produtos.keySet() : estado.produtosAlterados) {
+                long[] p = estado.produtos.get(id);
+                if (p != null) {
+                    salvar.add(new AgregadoProduto(tenant, id, p[Acumuladores.QTD_ENTRADAS], p[Acumuladores.SOMA_DIAS_ENTRADAS],
+                            p[Acumuladores.QTD_VENDAS], p[Acumuladores.SOMA_DIAS_VENDAS]));
+                } else {
+                    remover.add(new AgregadoProdutoId(tenant, id));
+                }
+            }
+            linhaTotais = new AgregadoTotais(tenant, estado.qtdEntradas, estado.somaPrazoEntradas, estado.qtdVendas,
+                    estado.somaPrazoVendas, estado.somaDiasPares, estado.qtdPares, LocalDateTime.now());
+
+            estado.produtosAlterados.clear();
+            estado.snapshotCompleto = false;
+            estado.alterado = false;
+        }
+
+        try {
+            if (completo) agregadoProdutoRepository.apagarDoTenant(tenant);
+            agregadoProdutoRepository.deleteAllById(remover);
+            agregadoProdutoRepository.saveAll(salvar);
+            agregadoTotaisRepository.save(linhaTotais);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar snapshot dos indicadores do tenant {}; nova tentativa completa no próximo ciclo", tenant, e);
+            synchronized (estado) {
+                estado.snapshotCompleto = true;
+                estado.alterado = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.empresa.aplicacao.services;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Resultado imutável de todos os indicadores, calculados de uma só vez a partir
+ * de uma única leitura dos dados (ver CalculoService.calcularIndicadores).
+ */
+@JsonSerialize(using = IndicadoresSnapshotSerializer.class)
+public record IndicadoresSnapshot(double pmre,
+                                  double pmrv,
+                                  double pmpf,
+                                  double cicloOperacional,
+                                  double cicloCaixa,
+                                  double giroCaixa,
+                                  double saldoMinimo) {
+}
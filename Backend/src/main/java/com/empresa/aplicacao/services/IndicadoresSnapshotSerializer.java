@@ -0,0 +1,30 @@
+package com.empresa.aplicacao.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Escreve os indicadores direto no gerador JSON como doubles primitivos, sem passar
+ * por introspecção nem por um Map (mesmas chaves da resposta de /api/gestao/calculos).
+ */
+public class IndicadoresSnapshotSerializer extends StdSerializer<IndicadoresSnapshot> {
+
+    public IndicadoresSnapshotSerializer() {
+        super(IndicadoresSnapshot.class);
+    }
+
+    @Override
+    public void serialize(IndicadoresSnapshot s, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("pmre", s.pmre());
+        gen.writeNumberField("pmrv", s.pmrv());
+        gen.writeNumberField("pmpf", s.pmpf());
+        gen.writeNumberField("cicloOperacional", s.cicloOperacional());
+        gen.writeNumberField("cicloCaixa", s.cicloCaixa());
+        gen.writeNumberField("saldoMinimo", s.saldoMinimo());
+        gen.writeEndObject();
+    }
+}
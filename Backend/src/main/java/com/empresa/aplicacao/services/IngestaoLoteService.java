@@ -0,0 +1,356 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.RelatorioLote;
+import com.empresa.aplicacao.eventos.EntradasImportadas;
+import com.empresa.aplicacao.eventos.VendasImportadas;
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Venda;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importação em lote de Entradas e Vendas (CSV ou NDJSON).
+ *
+ * O corpo é lido linha a linha, validado e inserido em blocos com JDBC batch
+ * (sem passar pelo Hibernate, cujo batching fica desligado com ids IDENTITY).
+ * Cada bloco roda em uma transação (com os eventos do log do ledger, ver LedgerEventos) e
+ * depois publica um único evento com o bloco (EntradasImportadas/VendasImportadas), que os
+ * indicadores incrementais, o rollup e o cache aplicam de uma vez. Um bloco recusado pelo
+ * banco é desfeito sozinho e suas linhas entram nos erros do relatório.
+ */
+@Service
+public class IngestaoLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestaoLoteService.class);
+
+    private static final String SQL_ENTRADA =
+            "insert into entrada (data_entrada, fornecedor, produto, produto_id, preco_compra, prazo_pagto, tenant_id) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_VENDA =
+            "insert into venda (data_venda, cliente, produto, produto_id, preco_venda, prazo_pagto, tenant_id) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final DateTimeFormatter DATA_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private IndicadoresIncrementais indicadores;
+
+    @Autowired
+    private ProdutoCatalogo produtoCatalogo;
+
+    @Autowired
+    private ProdutoRegistry produtoRegistry;
+
+    @Autowired
+    private LedgerEventos ledgerEventos;
+
+    @Value("${ingestao.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+
+    @Value("${ingestao.max-erros:1000}")
+    private int maxErros;
+
+    public RelatorioLote importarEntradas(InputStream corpo, String contentType) throws IOException {
+        return importar(corpo, contentType, Entrada.class, new Importador<>() {
+            @Override
+            public Entrada deCsv(Map<String, String> c, boolean decimalComVirgula) {
+                Entrada e = new Entrada();
+                e.setDataEntrada(data(c.get("dataentrada")));
+                e.setFornecedor(c.get("fornecedor"));
+                e.setProduto(c.get("produto"));
+                e.setPrecoCompra(numero(c.get("precocompra"), decimalComVirgula));
+                e.setPrazoPagto((int) numero(c.get("prazopagto"), decimalComVirgula));
+                return e;
+            }
+
+            @Override
+            public String validar(Entrada e) {
+                if (e.getDataEntrada() == null) return "dataEntrada obrigatória";
+                if (e.getProduto() == null || e.getProduto().isBlank()) return "produto obrigatório";
+                if (e.getPrazoPagto() < 0 || e.getPrecoCompra() < 0) return "prazo e preço não podem ser negativos";
+                e.setProdutoId(produtoCatalogo.obterOuCriar(e.getProduto()));
+                return null;
+            }
+
+            @Override
+            public void inserir(List<Entrada> bloco) {
+                // Fora do Hibernate: o tenant é gravado explicitamente
+                String tenant = TenantContexto.atual();
+                jdbcTemplate.batchUpdate(SQL_ENTRADA, bloco, bloco.size(), (ps, e) -> {
+                    ps.setDate(1, Date.valueOf(e.getDataEntrada()));
+                    ps.setString(2, e.getFornecedor());
+                    ps.setString(3, e.getProduto());
+                    ps.setInt(4, e.getProdutoId());
+                    ps.setDouble(5, e.getPrecoCompra());
+                    ps.setInt(6, e.getPrazoPagto());
+                    ps.setString(7, tenant);
+                });
+                ledgerEventos.registrarEntradas(bloco);
+            }
+
+            @Override
+            public void publicar(String tenant, List<Entrada> bloco) {
+                eventos.publishEvent(new EntradasImportadas(tenant, List.copyOf(bloco)));
+            }
+        });
+    }
+
+    public RelatorioLote importarVendas(InputStream corpo, String contentType) throws IOException {
+        return importar(corpo, contentType, Venda.class, new Importador<>() {
+            @Override
+            public Venda deCsv(Map<String, String> c, boolean decimalComVirgula) {
+                Venda v = new Venda();
+                v.setDataVenda(data(c.get("datavenda")));
+                v.setCliente(c.get("cliente"));
+                v.setProduto(c.get("produto"));
+                v.setPrecoVenda(numero(c.get("precovenda"), decimalComVirgula));
+                v.setPrazoPagto((int) numero(c.get("prazopagto"), decimalComVirgula));
+                return v;
+            }
+
+            @Override
+            public String validar(Venda v) {
+                if (v.getDataVenda() == null) return "dataVenda obrigatória";
+                if (v.getProduto() == null || v.getProduto().isBlank()) return "produto obrigatório";
+                if (v.getPrazoPagto() < 0 || v.getPrecoVenda() < 0) return "prazo e preço não podem ser negativos";
+                Integer produtoId = produtoCatalogo.idDe(v.getProduto());
+                if (!produtoRegistry.existe(produtoId)) {
+                    return "produto não cadastrado em Entradas: " + v.getProduto();
+                }
+                v.setProdutoId(produtoId);
+                return null;
+            }
+
+            @Override
+            public void inserir(List<Venda> bloco) {
+                // Fora do Hibernate: o tenant é gravado explicitamente
+                String tenant = TenantContexto.atual();
+                jdbcTemplate.batchUpdate(SQL_VENDA, bloco, bloco.size(), (ps, v) -> {
+                    ps.setDate(1, Date.valueOf(v.getDataVenda()));
+                    ps.setString(2, v.getCliente());
+                    ps.setString(3, v.getProduto());
+                    ps.setInt(4, v.getProdutoId());
+                    ps.setDouble(5, v.getPrecoVenda());
+                    ps.setInt(6, v.getPrazoPagto());
+                    ps.setString(7, tenant);
+                });
+                ledgerEventos.registrarVendas(bloco);
+            }
+
+            @Override
+            public void publicar(String tenant, List<Venda> bloco) {
+                eventos.publishEvent(new VendasImportadas(tenant, List.copyOf(bloco)));
+            }
+        });
+    }
+
+    // ---------------------------
+    // --- LEITURA EM BLOCOS ---
+    // ---------------------------
+
+    private interface Importador<T> {
+        T deCsv(Map<String, String> colunas, boolean decimalComVirgula);
+
+        String validar(T item);
+
+        void inserir(List<T> bloco);
+
+        void publicar(String tenant, List<T> bloco);
+    }
+
+    private <T> RelatorioLote importar(InputStream corpo, String contentType, Class<T> tipo,
+                                       Importador<T> importador) throws IOException {
+        boolean csv = contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv");
+
+        long recebidas = 0;
+        long inseridas = 0;
+        long rejeitadas = 0;
+        List<RelatorioLote.ErroLinha> erros = new ArrayList<>();
+        List<T> bloco = new ArrayList<>(tamanhoBloco);
+        List<Long> linhasBloco = new ArrayList<>(tamanhoBloco);
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+            String[] cabecalho = null;
+            char separador = ',';
+            long numeroLinha = 0;
+            String linha;
+
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank()) continue;
+
+                if (csv && cabecalho == null) {
+                    separador = linha.indexOf(';') >= 0 ? ';' : ',';
+                    cabecalho = dividirCsv(linha, separador);
+                    for (int i = 0; i < cabecalho.length; i++) {
+                        cabecalho[i] = cabecalho[i].trim().toLowerCase(Locale.ROOT);
+                    }
+                    continue;
+                }
+
+                recebidas++;
+                String erro;
+                T item = null;
+                try {
+                    item = csv
+                            ? importador.deCsv(colunas(cabecalho, dividirCsv(linha, separador)), separador == ';')
+                            : objectMapper.readValue(linha, tipo);
+                    erro = importador.validar(item);
+                } catch (IOException | RuntimeException e) {
+                    erro = "linha inválida: " + e.getMessage();
+                }
+
+                if (erro != null) {
+                    rejeitadas++;
+                    if (erros.size() < maxErros) erros.add(new RelatorioLote.ErroLinha(numeroLinha, erro));
+                    continue;
+                }
+
+                bloco.add(item);
+                linhasBloco.add(numeroLinha);
+                if (bloco.size() == tamanhoBloco) {
+                    int gravadas = gravar(bloco, linhasBloco, importador, erros);
+                    inseridas += gravadas;
+                    rejeitadas += tamanhoBloco - gravadas;
+                }
+            }
+        }
+
+        int restantes = bloco.size();
+        int gravadas = gravar(bloco, linhasBloco, importador, erros);
+        inseridas += gravadas;
+        rejeitadas += restantes - gravadas;
+        return new RelatorioLote(recebidas, inseridas, rejeitadas, erros);
+    }
+
+    /**
+     * Grava o bloco numa transação. Se o banco recusar, só este bloco é desfeito: suas
+     * linhas entram no relatório como erro e a importação segue com o próximo.
+     */
+    private <T> int gravar(List<T> bloco, List<Long> linhas, Importador<T> importador,
+                           List<RelatorioLote.ErroLinha> erros) {
+        if (bloco.isEmpty()) return 0;
+
+        int tamanho = bloco.size();
+        try {
+            return indicadores.comEscrita(() -> {
+                try {
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> importador.inserir(bloco));
+                } catch (DataAccessException e) {
+                    registrarFalha(linhas, e, erros);
+                    return 0;
+                }
+                // Publicado só depois do commit
+                importador.publicar(TenantContexto.atual(), bloco);
+                return tamanho;
+            });
+        } finally {
+            bloco.clear();
+            linhas.clear();
+        }
+    }
+
+    private void registrarFalha(List<Long> linhas, DataAccessException e, List<RelatorioLote.ErroLinha> erros) {
+        long primeira = linhas.get(0);
+        long ultima = linhas.get(linhas.size() - 1);
+        log.warn("Bloco das linhas {} a {} não gravado", primeira, ultima, e);
+        String mensagem = "bloco das linhas " + primeira + " a " + ultima + " não gravado: "
+                + e.getMostSpecificCause().getMessage();
+        for (Long linha : linhas) {
+            if (erros.size() >= maxErros) break;
+            erros.add(new RelatorioLote.ErroLinha(linha, mensagem));
+        }
+    }
+
+    private static Map<String, String> colunas(String[] cabecalho, String[] valores) {
+        Map<String, String> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.length && i < valores.length; i++) {
+            String valor = valores[i].trim();
+            colunas.put(cabecalho[i], valor.isEmpty() ? null : valor);
+        }
+        return colunas;
+    }
+
+    /**
+     * Divide uma linha CSV respeitando aspas duplas ("a;b" e "" como aspas literais).
+     */
+    static String[] dividirCsv(String linha, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == '"') {
+                if (entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else {
+                    entreAspas = !entreAspas;
+                }
+            } else if (c == separador && !entreAspas) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    private static LocalDate data(String valor) {
+        if (valor == null) return null;
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            return LocalDate.parse(valor, DATA_BR);
+        }
+    }
+
+    private static double numero(String valor, boolean decimalComVirgula) {
+        if (valor == null) return 0;
+        if (decimalComVirgula && valor.indexOf(',') >= 0) {
+            // Formato brasileiro: 1.234,56
+            return Double.parseDouble(valor.replace(".", "").replace(',', '.'));
+        }
+        return Double.parseDouble(valor);
+    }
+}
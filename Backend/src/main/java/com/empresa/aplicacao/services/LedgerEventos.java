@@ -0,0 +1,286 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.dto.IndicadoresEm;
+import com.empresa.aplicacao.eventos.TipoEvento;
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Venda;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Log append-only das alterações em Entradas e Vendas (tabela ledger_evento) e indicadores
+ * em qualquer data, reproduzidos a partir dele.
+ *
+ * Cada criação/remoção grava um evento na mesma transação da linha do ledger (ver
+ * {@link #emTransacao}); como não há edição, uma correção é uma remoção seguida de uma
+ * criação. Periodicamente, os acumuladores de cada tenant são gravados em ledger_snapshot
+ * (formato binário de Acumuladores); a consulta parte do último snapshot anterior à data e
+ * reproduz só os eventos seguintes.
+ */
+@Service
+public class LedgerEventos {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerEventos.class);
+
+    private static final String SQL_EVENTO =
+            "insert into ledger_evento (tenant_id, registrado_em, tipo, operacao, registro_id, produto_id, dia, prazo) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_ULTIMO_EVENTO =
+            "select id from ledger_evento where tenant_id = ? and registrado_em < ? "
+                    + "order by registrado_em desc, id desc limit 1";
+
+    private static final String SQL_SNAPSHOT =
+            "select ultimo_evento, eventos, dados from ledger_snapshot where tenant_id = ? and ultimo_evento <= ? "
+                    + "order by ultimo_evento desc limit 1";
+
+    private static final String SQL_REPRODUZIR =
+            "select tipo, operacao, produto_id, dia, prazo from ledger_evento "
+                    + "where tenant_id = ? and id > ? and id <= ? order by id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Transações abertas há mais que isso são consideradas encerradas ao cortar um snapshot
+    @Value("${ledger.margem-s:60}")
+    private long margemSegundos;
+
+    @Value("${ledger.snapshot.eventos-minimos:10000}")
+    private long eventosMinimos;
+
+    // ---------------------------
+    // --- GRAVAÇÃO ---
+    // ---------------------------
+
+    /**
+     * Executa a gravação (save/delete + registrar) em uma transação: a linha e o evento são
+     * confirmados juntos.
+     */
+    public <T> T emTransacao(Supplier<T> gravacao) {
+        return new TransactionTemplate(transactionManager).execute(status -> gravacao.get());
+    }
+
+    public void emTransacao(Runnable gravacao) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> gravacao.run());
+    }
+
+    public void registrar(Entrada entrada, TipoEvento tipo) {
+        jdbcTemplate.update(SQL_EVENTO, tenantDe(entrada.getTenantId()), Timestamp.valueOf(LocalDateTime.now()),
+                "E", operacao(tipo), entrada.getId(), entrada.getProdutoId(), data(entrada.getDataEntrada()),
+                entrada.getPrazoPagto());
+    }
+
+    public void registrar(Venda venda, TipoEvento tipo) {
+        jdbcTemplate.update(SQL_EVENTO, tenantDe(venda.getTenantId()), Timestamp.valueOf(LocalDateTime.now()),
+                "V", operacao(tipo), venda.getId(), venda.getProdutoId(), data(venda.getDataVenda()),
+                venda.getPrazoPagto());
+    }
+
+    /**
+     * Criação de um bloco da importação em lote (inserido por JDBC, sem id conhecido).
+     */
+    public void registrarEntradas(List<Entrada> bloco) {
+        String tenant = TenantContexto.atual();
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SQL_EVENTO, bloco, bloco.size(), (ps, e) -> {
+            ps.setString(1, tenant);
+            ps.setTimestamp(2, agora);
+            ps.setString(3, "E");
+            ps.setString(4, "C");
+            ps.setNull(5, Types.BIGINT);
+            ps.setInt(6, e.getProdutoId());
+            ps.setDate(7, Date.valueOf(e.getDataEntrada()));
+            ps.setInt(8, e.getPrazoPagto());
+        });
+    }
+
+    public void registrarVendas(List<Venda> bloco) {
+        String tenant = TenantContexto.atual();
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SQL_EVENTO, bloco, bloco.size(), (ps, v) -> {
+            ps.setString(1, tenant);
+            ps.setTimestamp(2, agora);
+            ps.setString(3, "V");
+            ps.setString(4, "C");
+            ps.setNull(5, Types.BIGINT);
+            ps.setInt(6, v.getProdutoId());
+            ps.setDate(7, Date.valueOf(v.getDataVenda()));
+            ps.setInt(8, v.getPrazoPagto());
+        });
+    }
+
+    private static String tenantDe(String tenantId) {
+        return tenantId != null ? tenantId : TenantContexto.atual();
+    }
+
+    private static String operacao(TipoEvento tipo) {
+        return tipo == TipoEvento.CRIACAO ? "C" : "R";
+    }
+
+    private static Date data(LocalDate dia) {
+        return dia != null ? Date.valueOf(dia) : null;
+    }
+
+    // ---------------------------
+    // --- CONSULTA EM UMA DATA ---
+    // ---------------------------
+
+    /**
+     * Indicadores do tenant atual com os eventos registrados até o fim do dia informado.
+     */
+    public IndicadoresEm indicadoresEm(LocalDate data) {
+        if (data == null) throw new IllegalArgumentException("Data obrigatória");
+
+        String tenant = TenantContexto.atual();
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        return leitura.execute(status -> {
+            long ultimo = ultimoEventoAntes(tenant, data.plusDays(1).atStartOfDay());
+            Reproducao r = reproduzir(tenant, ultimo);
+            IndicadoresIncrementais.Totais t = r.acumuladores().totaisAtuais();
+            double cicloOperacional = t.pmre() + t.pmrv();
+            return new IndicadoresEm(data, ultimo, r.reproduzidos(), t.qtdEntradas(), t.qtdVendas(),
+                    t.pmre(), t.pmrv(), t.pmpf(), cicloOperacional, cicloOperacional - t.pmpf());
+        });
+    }
+
+    private long ultimoEventoAntes(String tenant, LocalDateTime limite) {
+        List<Long> ids = jdbcTemplate.query(SQL_ULTIMO_EVENTO, (rs, i) -> rs.getLong(1),
+                tenant, Timestamp.valueOf(limite));
+        return ids.isEmpty() ? 0 : ids.get(0);
+    }
+
+    /**
+     * @param snapshotEventos eventos incluídos no snapshot de partida
+     * @param reproduzidos eventos aplicados depois dele
+     */
+    private record Reproducao(Acumuladores acumuladores, long snapshotEventos, long reproduzidos) {
+    }
+
+    /**
+     * Acumuladores com todos os eventos do tenant até {@code ate}: último snapshot anterior
+     * mais os eventos seguintes, lidos em streaming e em ordem de id.
+     */
+    private Reproducao reproduzir(String tenant, long ate) {
+        Acumuladores acumuladores = new Acumuladores();
+        long[] inicio = {0, 0};
+
+        jdbcTemplate.query(SQL_SNAPSHOT, rs -> {
+            inicio[0] = rs.getLong("ultimo_evento");
+            inicio[1] = rs.getLong("eventos");
+            lerSnapshot(acumuladores, rs.getBytes("dados"));
+        }, tenant, ate);
+
+        long[] reproduzidos = {0};
+        if (ate > inicio[0]) {
+            jdbcTemplate.query(con -> {
+                // Cursor do MySQL: as linhas chegam uma a uma, sem carregar o intervalo todo
+                PreparedStatement ps = con.prepareStatement(SQL_REPRODUZIR,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(Integer.MIN_VALUE);
+                ps.setString(1, tenant);
+                ps.setLong(2, inicio[0]);
+                ps.setLong(3, ate);
+                return ps;
+            }, rs -> {
+                Integer produtoId = rs.getObject("produto_id", Integer.class);
+                Date dia = rs.getDate("dia");
+                int sinal = "C".equals(rs.getString("operacao")) ? 1 : -1;
+                LocalDate data = dia != null ? dia.toLocalDate() : null;
+                if ("E".equals(rs.getString("tipo"))) {
+                    acumuladores.aplicarEntrada(produtoId, data, rs.getInt("prazo"), sinal);
+                } else {
+                    acumuladores.aplicarVenda(produtoId, data, rs.getInt("prazo"), sinal);
+                }
+                reproduzidos[0]++;
+            });
+        }
+        return new Reproducao(acumuladores, inicio[1], reproduzidos[0]);
+    }
+
+    private static void lerSnapshot(Acumuladores acumuladores, byte[] dados) {
+        try {
+            acumuladores.ler(new DataInputStream(new ByteArrayInputStream(dados)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Snapshot do ledger inválido", e);
+        }
+    }
+
+    // ---------------------------
+    // --- SNAPSHOTS ---
+    // ---------------------------
+
+    @Scheduled(fixedDelayString = "${ledger.snapshot.intervalo-ms:300000}",
+            initialDelayString = "${ledger.snapshot.intervalo-ms:300000}")
+    public void snapshotAgendado() {
+        List<String> tenants = jdbcTemplate.queryForList("select distinct tenant_id from ledger_evento", String.class);
+        for (String tenant : tenants) {
+            try {
+                gravarSnapshot(tenant);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar snapshot do ledger do tenant {}", tenant, e);
+            }
+        }
+    }
+
+    /**
+     * Grava um snapshot do tenant até o último evento com mais de ledger.margem-s, se houver
+     * pelo menos ledger.snapshot.eventos-minimos eventos desde o anterior. A margem cobre
+     * transações ainda abertas com ids menores que o corte.
+     */
+    public boolean gravarSnapshot(String tenant) {
+        return RoteamentoDataSource.noPrimario(() -> {
+            long corte = ultimoEventoAntes(tenant, LocalDateTime.now().minusSeconds(margemSegundos));
+            Long anterior = jdbcTemplate.queryForObject(
+                    "select coalesce(max(ultimo_evento), 0) from ledger_snapshot where tenant_id = ?", Long.class, tenant);
+            Long novos = jdbcTemplate.queryForObject(
+                    "select count(*) from ledger_evento where tenant_id = ? and id > ? and id <= ?",
+                    Long.class, tenant, anterior, corte);
+            if (novos == null || novos < eventosMinimos) return false;
+
+            Reproducao r = reproduzir(tenant, corte);
+            ByteArrayOutputStream dados = new ByteArrayOutputStream();
+            try (DataOutputStream saida = new DataOutputStream(dados)) {
+                r.acumuladores().gravar(saida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            jdbcTemplate.update("insert into ledger_snapshot (tenant_id, ultimo_evento, eventos, criado_em, dados) "
+                            + "values (?, ?, ?, ?, ?)",
+                    tenant, corte, r.snapshotEventos() + r.reproduzidos(), Timestamp.valueOf(LocalDateTime.now()),
+                    dados.toByteArray());
+            log.info("Snapshot do ledger do tenant {} até o evento {} ({} eventos reproduzidos, {} bytes)",
+                    tenant, corte, r.reproduzidos(), dados.size());
+            return true;
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Escreve o resultado de uma consulta em NDJSON (um objeto JSON por linha) à medida
+ * que as linhas chegam do cursor JDBC. Cada entidade é desanexada após ser escrita,
+ * então o uso de memória não depende do tamanho da tabela.
+ *
+ * O corpo é escrito em outra thread: o tenant da requisição é capturado em {@link #exportar}.
+ */
+@Component
+public class NdjsonExportador {
+
+    private static final int LINHAS_POR_FLUSH = 500;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> StreamingResponseBody exportar(Supplier<Stream<T>> consulta) {
+        // O flush é feito em blocos, não a cada objeto
+        ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        String tenant = TenantContexto.atual();
+
+        return saida -> TenantContexto.executar(tenant, () -> {
+            TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+            transacao.setReadOnly(true);
+
+            transacao.executeWithoutResult(status -> {
+                try (Stream<T> linhas = consulta.get();
+                     JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+                    gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    gerador.setRootValueSeparator(new SerializedString("\n"));
+
+                    int escritas = 0;
+                    Iterator<T> it = linhas.iterator();
+                    while (it.hasNext()) {
+                        T linha = it.next();
+                        escritor.writeValue(gerador, linha);
+                        entityManager.detach(linha);
+
+                        if (++escritas % LINHAS_POR_FLUSH == 0) gerador.flush();
+                    }
+                    if (escritas > 0) gerador.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Venda;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Motor de cálculo do PMRE (Prazo Médio de Renovação de Estoques).
+ *
+ * Agrupa entradas e vendas pelo id do produto no catálogo em vetores de dias (epoch day)
+ * e calcula a média em O(N + M), sem comparar cada entrada com cada venda.
+ *
+ * Modos:
+ *  - MEDIA_PARES: mesma média do cálculo original (todos os pares entrada × venda do produto).
+ *    Para cada produto: soma(venda - entrada) = nEntradas × somaVendas - nVendas × somaEntradas.
+ *  - FIFO: cada venda consome o lote (entrada) mais antigo ainda disponível do produto.
+ *    Cada entrada é tratada como um lote consumido por uma única venda.
+ */
+public final class PmreEngine {
+
+    public enum Modo { MEDIA_PARES, FIFO }
+
+    private PmreEngine() {}
+
+    public static double calcular(List<Entrada> entradas, List<Venda> vendas, Modo modo) {
+        Acumulador acumulador = new Acumulador();
+        for (Entrada e : entradas) acumulador.adicionarEntrada(e.getProdutoId(), e.getDataEntrada());
+        for (Venda v : vendas) acumulador.adicionarVenda(v.getProdutoId(), v.getDataVenda());
+        return acumulador.calcular(modo);
+    }
+
+    /**
+     * Recebe as linhas uma a uma (ex.: de um Stream do banco) e guarda só os dias por produto,
+     * sem reter as linhas. Todas as entradas devem ser adicionadas antes das vendas.
+     * Não é thread-safe.
+     */
+    public static final class Acumulador {
+        private DiasProduto[] porProduto = new DiasProduto[16];
+
+        public void adicionarEntrada(Integer produtoId, LocalDate data) {
+            if (produtoId == null || data == null) return;
+            int id = produtoId;
+            if (id >= porProduto.length) {
+                porProduto = Arrays.copyOf(porProduto, Math.max(id + 1, porProduto.length * 2));
+            }
+            if (porProduto[id] == null) porProduto[id] = new DiasProduto();
+            porProduto[id].adicionarEntrada((int) data.toEpochDay());
+        }
+
+        public void adicionarVenda(Integer produtoId, LocalDate data) {
+            if (produtoId == null || data == null) return;
+            int id = produtoId;
+            // Vendas de produtos sem entrada não formam pares
+            if (id < porProduto.length && porProduto[id] != null) {
+                porProduto[id].adicionarVenda((int) data.toEpochDay());
+            }
+        }
+
+        public double calcular(Modo modo) {
+            double totalDias = 0;
+            long contador = 0;
+
+            for (DiasProduto dias : porProduto) {
+                if (dias == null || dias.qtdEntradas == 0 || dias.qtdVendas == 0) continue;
+
+                if (modo == Modo.FIFO) {
+                    int[] lotes = dias.entradas;
+                    int[] saidas = dias.vendas;
+                    Arrays.sort(lotes, 0, dias.qtdEntradas);
+                    Arrays.sort(saidas, 0, dias.qtdVendas);
+
+                    int lote = 0;
+                    for (int i = 0; i < dias.qtdVendas && lote < dias.qtdEntradas; i++) {
+                        // Venda anterior ao lote mais antigo disponível não tem estoque para consumir
+                        if (lotes[lote] > saidas[i]) continue;
+                        totalDias += saidas[i] - lotes[lote];
+                        contador++;
+                        lote++;
+                    }
+                } else {
+                    totalDias += (double) dias.qtdEntradas * dias.somaVendas()
+                            - (double) dias.qtdVendas * dias.somaEntradas();
+                    contador += (long) dias.qtdEntradas * dias.qtdVendas;
+                }
+            }
+
+            return contador > 0 ? totalDias / contador : 0;
+        }
+    }
+
+    /**
+     * Dias (epoch day) das entradas e vendas de um produto, em vetores primitivos
+     * (int: 4 bytes por linha).
+     */
+    private static final class DiasProduto {
+        private int[] entradas = new int[4];
+        private int[] vendas = new int[4];
+        private int qtdEntradas;
+        private int qtdVendas;
+
+        void adicionarEntrada(int dia) {
+            if (qtdEntradas == entradas.length) entradas = Arrays.copyOf(entradas, qtdEntradas * 2);
+            entradas[qtdEntradas++] = dia;
+        }
+
+        void adicionarVenda(int dia) {
+            if (qtdVendas == vendas.length) vendas = Arrays.copyOf(vendas, qtdVendas * 2);
+            vendas[qtdVendas++] = dia;
+        }
+
+        long somaEntradas() {
+            long soma = 0;
+            for (int i = 0; i < qtdEntradas; i++) soma += entradas[i];
+            return soma;
+        }
+
+        long somaVendas() {
+            long soma = 0;
+            for (int i = 0; i < qtdVendas; i++) soma += vendas[i];
+            return soma;
+        }
+    }
+}
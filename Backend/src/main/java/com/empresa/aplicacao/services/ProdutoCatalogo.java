@@ -0,0 +1,102 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.models.Produto;
+import com.empresa.aplicacao.repositories.ProdutoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolve nomes de produto para o id inteiro do catálogo (tabela produto).
+ *
+ * Mantém em memória chave normalizada → id, carregado na inicialização, para que
+ * entradas e vendas sejam associadas ao produto sem consulta ao banco.
+ * Na inicialização também migra as linhas antigas (produto só em texto) para produto_id.
+ */
+@Component
+public class ProdutoCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(ProdutoCatalogo.class);
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    private final ConcurrentHashMap<String, Integer> idsPorChave = new ConcurrentHashMap<>();
+
+    // Roda antes dos componentes carregados em ApplicationReadyEvent (indicadores, registro)
+    @EventListener(ApplicationStartedEvent.class)
+    public void carregar() {
+        int novos = produtoRepository.cadastrarProdutosSemCatalogo();
+        int entradas = produtoRepository.vincularEntradas();
+        int vendas = produtoRepository.vincularVendas();
+        if (novos + entradas + vendas > 0) {
+            log.info("Catálogo de produtos: {} produtos criados, {} entradas e {} vendas vinculadas",
+                    novos, entradas, vendas);
+        }
+
+        // Do primário, que acabou de receber os cadastros acima
+        for (Produto p : RoteamentoDataSource.noPrimario(produtoRepository::findAll)) {
+            idsPorChave.put(p.getChave(), p.getId());
+        }
+    }
+
+    /**
+     * Id do produto, ou null se o nome não estiver no catálogo.
+     */
+    public Integer idDe(String nome) {
+        String chave = Produto.chave(nome);
+        if (chave == null) return null;
+
+        Integer id = idsPorChave.get(chave);
+        if (id != null) return id;
+
+        // Produto criado por outra instância ainda não carregado aqui
+        return produtoRepository.findByChave(chave)
+                .map(p -> {
+                    idsPorChave.put(chave, p.getId());
+                    return p.getId();
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Id para filtros de listagem: null sem filtro; -1 (não encontra nada) se o produto não existir.
+     */
+    public Integer idParaFiltro(String nome) {
+        if (nome == null || nome.isBlank()) return null;
+        Integer id = idDe(nome);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Id do produto, cadastrando-o no catálogo se ainda não existir.
+     */
+    public Integer obterOuCriar(String nome) {
+        String chave = Produto.chave(nome);
+        if (chave == null) return null;
+
+        Integer id = idDe(nome);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = idsPorChave.get(chave);
+            if (id != null) return id;
+
+            try {
+                id = produtoRepository.save(new Produto(nome)).getId();
+            } catch (DataIntegrityViolationException e) {
+                // Cadastrado em paralelo (restrição única em chave)
+                id = produtoRepository.findByChave(chave).orElseThrow(() -> e).getId();
+            }
+            idsPorChave.put(chave, id);
+            return id;
+        }
+    }
+}
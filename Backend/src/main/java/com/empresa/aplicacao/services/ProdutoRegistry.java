@@ -0,0 +1,118 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.config.RoteamentoDataSource;
+import com.empresa.aplicacao.eventos.EntradaEvento;
+import com.empresa.aplicacao.eventos.EntradasImportadas;
+import com.empresa.aplicacao.eventos.TipoEvento;
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.repositories.ContagemProduto;
+import com.empresa.aplicacao.repositories.EntradaRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro em memória dos produtos cadastrados em Entradas de cada tenant (quantidade de
+ * entradas por id do catálogo), carregado na primeira validação do tenant e mantido pelos
+ * eventos de criação/remoção.
+ *
+ * Permite validar uma venda em O(1) sem consultar a tabela de entradas. Com
+ * produtos.registro-memoria=false, a verificação usa a consulta indexada existsByProdutoId.
+ */
+@Component
+public class ProdutoRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ProdutoRegistry.class);
+
+    @Autowired
+    private EntradaRepository entradaRepository;
+
+    @Autowired
+    private IndicadoresIncrementais indicadores;
+
+    @Value("${produtos.registro-memoria:true}")
+    private boolean habilitado;
+
+    // Quantidade de entradas por id do produto, por tenant
+    private final Map<String, Contagens> tenants = new ConcurrentHashMap<>();
+
+    private static final class Contagens {
+        // Esparso: só os produtos com entradas do tenant, não o catálogo inteiro
+        final Map<Integer, Integer> entradasPorProduto = new HashMap<>();
+    }
+
+    private Contagens carregar(String tenant) {
+        // Sem gravações em andamento no tenant, para não contar uma entrada duas vezes
+        return indicadores.semEscritasConcorrentes(() -> {
+            Contagens existentes = tenants.get(tenant);
+            if (existentes != null) return existentes;
+
+            // Lido do primário: os eventos de gravação mantêm o registro a partir desta contagem
+            List<ContagemProduto> contagens = RoteamentoDataSource.noPrimario(entradaRepository::contarPorProduto);
+            Contagens novas = new Contagens();
+            for (ContagemProduto c : contagens) {
+                novas.entradasPorProduto.put(c.getProdutoId().intValue(), c.getQuantidade().intValue());
+            }
+            tenants.put(tenant, novas);
+            log.info("Registro de produtos do tenant {} carregado: {} produtos", tenant, contagens.size());
+            return novas;
+        });
+    }
+
+    public boolean existe(Integer produtoId) {
+        if (produtoId == null) return false;
+
+        if (habilitado) {
+            String tenant = TenantContexto.atual();
+            Contagens contagens = tenants.get(tenant);
+            if (contagens == null) contagens = carregar(tenant);
+            synchronized (contagens) {
+                return contagens.entradasPorProduto.getOrDefault(produtoId, 0) > 0;
+            }
+        }
+        // Validação antes de gravar: uma réplica atrasada ainda não veria a entrada recém-criada
+        return RoteamentoDataSource.noPrimario(() -> entradaRepository.existsByProdutoId(produtoId));
+    }
+
+    @EventListener
+    public void aoAlterarEntrada(EntradaEvento evento) {
+        if (!habilitado) return;
+
+        Integer id = evento.entrada().getProdutoId();
+        if (id == null) return;
+
+        String tenant = evento.entrada().getTenantId() != null ? evento.entrada().getTenantId() : TenantContexto.atual();
+        // Tenant ainda não carregado: a contagem inicial já vai incluir esta gravação
+        Contagens contagens = tenants.get(tenant);
+        if (contagens == null) return;
+
+        synchronized (contagens) {
+            int delta = evento.tipo() == TipoEvento.CRIACAO ? 1 : -1;
+            // Zero remove o produto do mapa
+            contagens.entradasPorProduto.merge(id, delta, (atual, d) -> atual + d == 0 ? null : atual + d);
+        }
+    }
+
+    @EventListener
+    public void aoImportarEntradas(EntradasImportadas evento) {
+        if (!habilitado) return;
+
+        Contagens contagens = tenants.get(evento.tenant());
+        if (contagens == null) return;
+
+        synchronized (contagens) {
+            for (Entrada e : evento.entradas()) {
+                if (e.getProdutoId() != null) contagens.entradasPorProduto.merge(e.getProdutoId(), 1, Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.IndicadoresPeriodo;
+import com.empresa.aplicacao.eventos.EntradaEvento;
+import com.empresa.aplicacao.eventos.EntradasImportadas;
+import com.empresa.aplicacao.eventos.TipoEvento;
+import com.empresa.aplicacao.eventos.VendaEvento;
+import com.empresa.aplicacao.eventos.VendasImportadas;
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Produto;
+import com.empresa.aplicacao.models.RollupDiario;
+import com.empresa.aplicacao.models.RollupDiarioId;
+import com.empresa.aplicacao.models.Venda;
+import com.empresa.aplicacao.repositories.ProdutoRepository;
+import com.empresa.aplicacao.repositories.RollupDiarioRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rollups diários de entradas e vendas (tabela rollup_diario) e consulta de indicadores
+ * por período, produto e fornecedor/cliente.
+ *
+ * Cada gravação/remoção acumula um delta em memória por (tenant, dia, tipo, produto, contraparte);
+ * os deltas são gravados em lote (upsert) a cada rollup.descarga-intervalo-ms e antes de
+ * cada consulta. Assim a consulta lê no máximo dias × produtos × contrapartes linhas,
+ * independentemente do volume de transações.
+ *
+ * Deltas ainda não descarregados se perdem se o processo cair; por isso, na inicialização,
+ * o rollup é conferido contra entrada e venda e os tenants divergentes são reconstruídos.
+ */
+@Service
+public class RollupDiarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupDiarioService.class);
+
+    private static final String SQL_UPSERT =
+            "insert into rollup_diario (tenant_id, dia, tipo, produto_id, contraparte, qtd, soma_prazo) values (?, ?, ?, ?, ?, ?, ?) "
+                    + "on duplicate key update qtd = qtd + values(qtd), soma_prazo = soma_prazo + values(soma_prazo)";
+
+    @Autowired
+    private RollupDiarioRepository rollupDiarioRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ProdutoCatalogo produtoCatalogo;
+
+    @Autowired
+    private IndicadoresIncrementais indicadores;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${rollup.max-dias:3660}")
+    private long maxDias;
+
+    // ReentrantLock e não synchronized: a descarga faz I/O e pode rodar em virtual threads
+    private final ReentrantLock persistencia = new ReentrantLock();
+
+    // Deltas ainda não gravados: {qtd, somaPrazo}
+    private Map<RollupDiarioId, long[]> pendentes = new HashMap<>();
+
+    // ---------------------------
+    // --- ATUALIZAÇÃO ---
+    // ---------------------------
+
+    @EventListener
+    public void aoAlterarEntrada(EntradaEvento evento) {
+        Entrada e = evento.entrada();
+        acumular(e.getTenantId(), e.getDataEntrada(), RollupDiario.ENTRADA, e.getProdutoId(), e.getFornecedor(),
+                evento.tipo(), e.getPrazoPagto());
+    }
+
+    @EventListener
+    public void aoAlterarVenda(VendaEvento evento) {
+        Venda v = evento.venda();
+        acumular(v.getTenantId(), v.getDataVenda(), RollupDiario.VENDA, v.getProdutoId(), v.getCliente(),
+                evento.tipo(), v.getPrazoPagto());
+    }
+
+    // Importação em lote: o bloco inteiro numa única entrada no monitor
+    @EventListener
+    public synchronized void aoImportarEntradas(EntradasImportadas evento) {
+        for (Entrada e : evento.entradas()) {
+            acumular(evento.tenant(), e.getDataEntrada(), RollupDiario.ENTRADA, e.getProdutoId(), e.getFornecedor(),
+                    TipoEvento.CRIACAO, e.getPrazoPagto());
+        }
+    }
+
+    @EventListener
+    public synchronized void aoImportarVendas(VendasImportadas evento) {
+        for (Venda v : evento.vendas()) {
+            acumular(evento.tenant(), v.getDataVenda(), RollupDiario.VENDA, v.getProdutoId(), v.getCliente(),
+                    TipoEvento.CRIACAO, v.getPrazoPagto());
+        }
+    }
+
+    private synchronized void acumular(String tenant, LocalDate dia, String tipo, Integer produtoId, String contraparte,
+                                       TipoEvento evento, int prazo) {
+        if (dia == null || produtoId == null) return;
+
+        // Entidades montadas à mão não trazem o tenant
+        if (tenant == null) tenant = TenantContexto.atual();
+        int sinal = evento == TipoEvento.CRIACAO ? 1 : -1;
+        long[] delta = pendentes.computeIfAbsent(
+                new RollupDiarioId(tenant, dia, tipo, produtoId, normalizar(contraparte)), k -> new long[2]);
+        delta[0] += sinal;
+        delta[1] += (long) sinal * prazo;
+    }
+
+    /**
+     * Grava os deltas pendentes com um upsert em lote.
+     */
+    @Scheduled(fixedDelayString = "${rollup.descarga-intervalo-ms:1000}")
+    public void descarregar() {
+        persistencia.lock();
+        try {
+            Map<RollupDiarioId, long[]> lote;
+            synchronized (this) {
+                if (pendentes.isEmpty()) return;
+                lote = pendentes;
+                pendentes = new HashMap<>();
+            }
+
+            List<Map.Entry<RollupDiarioId, long[]>> linhas = new ArrayList<>(lote.entrySet());
+            try {
+                // Lote inteiro numa transação: numa falha nada foi aplicado e o lote volta aos pendentes
+                new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(SQL_UPSERT, linhas, linhas.size(), (ps, linha) -> {
+                            RollupDiarioId id = linha.getKey();
+                            ps.setString(1, id.getTenantId());
+                            ps.setDate(2, Date.valueOf(id.getDia()));
+                            ps.setString(3, id.getTipo());
+                            ps.setInt(4, id.getProdutoId());
+                            ps.setString(5, id.getContraparte());
+                            ps.setLong(6, linha.getValue()[0]);
+                            ps.setLong(7, linha.getValue()[1]);
+                        }));
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar rollups diários; nova tentativa na próxima descarga", e);
+                synchronized (this) {
+                    lote.forEach((id, delta) -> {
+                        long[] atual = pendentes.computeIfAbsent(id, k -> new long[2]);
+                        atual[0] += delta[0];
+                        atual[1] += delta[1];
+                    });
+                }
+            }
+        } finally {
+            persistencia.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        // Tabela vazia ou deltas perdidos numa queda: reconstrói só os tenants que não batem
+        descarregar();
+        for (String tenant : rollupDiarioRepository.tenantsDivergentes()) {
+            log.warn("Rollup diário do tenant {} diverge de entradas/vendas; reconstruindo", tenant);
+            TenantContexto.executar(tenant, this::reconstruir);
+        }
+    }
+
+    /**
+     * Recria os rollups do tenant atual a partir de Entradas e Vendas, sem gravações em andamento.
+     */
+    public void reconstruir() {
+        String tenant = TenantContexto.atual();
+        indicadores.semEscritasConcorrentes(() -> {
+            persistencia.lock();
+            try {
+                synchronized (this) {
+                    pendentes.keySet().removeIf(id -> id.getTenantId().equals(tenant));
+                }
+                int[] linhas = new TransactionTemplate(transactionManager).execute(status -> {
+                    rollupDiarioRepository.apagarDoTenant(tenant);
+                    return new int[]{rollupDiarioRepository.reconstruirEntradas(tenant), rollupDiarioRepository.reconstruirVendas(tenant)};
+                });
+                log.info("Rollups diários do tenant {} reconstruídos: {} linhas de entradas, {} de vendas",
+                        tenant, linhas[0], linhas[1]);
+            } finally {
+                persistencia.unlock();
+            }
+            return null;
+        });
+    }
+
+    // ---------------------------
+    // --- CONSULTA ---
+    // ---------------------------
+
+    private enum Contraparte { NENHUMA, FORNECEDOR, CLIENTE }
+
+    // Um produto em um período, de um lado (entradas ou vendas)
+    private record Unidade(LocalDate periodo, int produtoId, String contraparte) {
+    }
+
+    private static final class Lado {
+        long qtd;
+        long somaPrazo;
+        long somaDias;
+    }
+
+    private record Grupo(LocalDate periodo, Integer produtoId, String contraparte) {
+    }
+
+    private static final class Acumulado {
+        long qtdEntradas;
+        long somaPrazoEntradas;
+        long qtdVendas;
+        long somaPrazoVendas;
+        double somaDiasPares;
+        double qtdPares;
+
+        void entradas(Lado e) {
+            qtdEntradas += e.qtd;
+            somaPrazoEntradas += e.somaPrazo;
+        }
+
+        void vendas(Lado v) {
+            qtdVendas += v.qtd;
+            somaPrazoVendas += v.somaPrazo;
+        }
+
+        // Pares entrada × venda do mesmo produto: Σ(v - e) = nE·ΣV - nV·ΣE
+        void pares(Lado e, Lado v) {
+            somaDiasPares += (double) e.qtd * v.somaDias - (double) v.qtd * e.somaDias;
+            qtdPares += (double) e.qtd * v.qtd;
+        }
+    }
+
+    /**
+     * Indicadores no intervalo [de, ate], agrupados pelas dimensões de {@code agrupar}
+     * (separadas por vírgula): dia ou mes, produto, fornecedor ou cliente.
+     */
+    public List<IndicadoresPeriodo> consultar(LocalDate de, LocalDate ate, String agrupar,
+                                              String produto, String fornecedor, String cliente) {
+        if (de == null || ate == null || de.isAfter(ate)) throw new IllegalArgumentException("período inválido");
+        if (ChronoUnit.DAYS.between(de, ate) > maxDias) {
+            throw new IllegalArgumentException("período acima de " + maxDias + " dias");
+        }
+
+        Set<String> dimensoes = new HashSet<>();
+        if (agrupar != null) {
+            for (String d : agrupar.split(",")) {
+                if (!d.isBlank()) dimensoes.add(d.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        for (String d : dimensoes) {
+            if (!Set.of("dia", "mes", "produto", "fornecedor", "cliente").contains(d)) {
+                throw new IllegalArgumentException("dimensão desconhecida: " + d);
+            }
+        }
+        if (dimensoes.contains("dia") && dimensoes.contains("mes")) {
+            throw new IllegalArgumentException("use dia ou mes, não ambos");
+        }
+
+        // Filtro por fornecedor/cliente também restringe os pares ao que ele forneceu/comprou
+        boolean porFornecedor = dimensoes.contains("fornecedor") || fornecedor != null;
+        boolean porCliente = dimensoes.contains("cliente") || cliente != null;
+        if (porFornecedor && porCliente) throw new IllegalArgumentException("use fornecedor ou cliente, não ambos");
+        Contraparte modo = porFornecedor ? Contraparte.FORNECEDOR : porCliente ? Contraparte.CLIENTE : Contraparte.NENHUMA;
+        boolean porDia = dimensoes.contains("dia");
+        boolean porMes = dimensoes.contains("mes");
+        boolean porProduto = dimensoes.contains("produto");
+
+        descarregar();
+        List<RollupDiario> linhas = rollupDiarioRepository.buscarPeriodo(TenantContexto.atual(), de, ate,
+                produtoCatalogo.idParaFiltro(produto),
+                fornecedor == null ? null : normalizar(fornecedor), cliente == null ? null : normalizar(cliente));
+
+        Map<Unidade, Lado> entradas = new HashMap<>();
+        Map<Unidade, Lado> vendas = new HashMap<>();
+        for (RollupDiario r : linhas) {
+            if (r.getQtd() == 0) continue;
+
+            RollupDiarioId id = r.getId();
+            LocalDate periodo = porDia ? id.getDia() : porMes ? id.getDia().withDayOfMonth(1) : null;
+            boolean entrada = RollupDiario.ENTRADA.equals(id.getTipo());
+            boolean comContraparte = entrada ? modo == Contraparte.FORNECEDOR : modo == Contraparte.CLIENTE;
+
+            Lado lado = (entrada ? entradas : vendas).computeIfAbsent(
+                    new Unidade(periodo, id.getProdutoId(), comContraparte ? id.getContraparte() : null), k -> new Lado());
+            lado.qtd += r.getQtd();
+            lado.somaPrazo += r.getSomaPrazo();
+            lado.somaDias += r.getQtd() * id.getDia().toEpochDay();
+        }
+
+        Map<Grupo, Acumulado> grupos = new HashMap<>();
+        if (modo == Contraparte.CLIENTE) {
+            vendas.forEach((u, v) -> {
+                Acumulado acc = grupos.computeIfAbsent(grupo(u, porProduto), k -> new Acumulado());
+                acc.vendas(v);
+                Lado e = entradas.get(new Unidade(u.periodo(), u.produtoId(), null));
+                if (e != null) {
+                    acc.entradas(e);
+                    acc.pares(e, v);
+                }
+            });
+        } else {
+            entradas.forEach((u, e) -> {
+                Acumulado acc = grupos.computeIfAbsent(grupo(u, porProduto), k -> new Acumulado());
+                acc.entradas(e);
+                Lado v = vendas.get(new Unidade(u.periodo(), u.produtoId(), null));
+                if (v != null) {
+                    acc.vendas(v);
+                    acc.pares(e, v);
+                }
+            });
+            if (modo == Contraparte.NENHUMA) {
+                // Vendas de produtos sem entrada no período
+                vendas.forEach((u, v) -> {
+                    if (!entradas.containsKey(u)) grupos.computeIfAbsent(grupo(u, porProduto), k -> new Acumulado()).vendas(v);
+                });
+            }
+        }
+
+        Map<Integer, String> nomes = new HashMap<>();
+        if (porProduto) {
+            Set<Integer> ids = new HashSet<>();
+            grupos.keySet().forEach(g -> ids.add(g.produtoId()));
+            for (Produto p : produtoRepository.findAllById(ids)) nomes.put(p.getId(), p.getNome());
+        }
+
+        List<IndicadoresPeriodo> resultado = new ArrayList<>(grupos.size());
+        grupos.forEach((g, acc) -> {
+            double pmre = acc.qtdPares > 0 ? acc.somaDiasPares / acc.qtdPares : 0;
+            double pmrv = acc.qtdVendas > 0 ? (double) acc.somaPrazoVendas / acc.qtdVendas : 0;
+            double pmpf = acc.qtdEntradas > 0 ? (double) acc.somaPrazoEntradas / acc.qtdEntradas : 0;
+            resultado.add(new IndicadoresPeriodo(g.periodo(), g.produtoId(), nomes.get(g.produtoId()),
+                    modo == Contraparte.FORNECEDOR ? g.contraparte() : null,
+                    modo == Contraparte.CLIENTE ? g.contraparte() : null,
+                    acc.qtdEntradas, acc.qtdVendas, pmre, pmrv, pmpf, pmre + pmrv, pmre + pmrv - pmpf));
+        });
+        resultado.sort(Comparator.comparing(IndicadoresPeriodo::periodo, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(IndicadoresPeriodo::produtoId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(i -> i.fornecedor() != null ? i.fornecedor() : i.cliente(),
+                        Comparator.nullsFirst(Comparator.naturalOrder())));
+        return resultado;
+    }
+
+    private static Grupo grupo(Unidade u, boolean porProduto) {
+        return new Grupo(u.periodo(), porProduto ? u.produtoId() : null, u.contraparte());
+    }
+
+    private static String normalizar(String contraparte) {
+        return contraparte == null ? "" : contraparte.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,306 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.SimulacaoRequisicao;
+import com.empresa.aplicacao.dto.SimulacaoResultado;
+import com.empresa.aplicacao.dto.SimulacaoResultado.BarraTornado;
+import com.empresa.aplicacao.dto.SimulacaoResultado.Classe;
+import com.empresa.aplicacao.dto.SimulacaoResultado.Distribuicao;
+import com.empresa.aplicacao.dto.SimulacaoResultado.Distribuicoes;
+import com.empresa.aplicacao.repositories.AgregadoPrazo;
+import com.empresa.aplicacao.repositories.DispersaoProdutoDias;
+import com.empresa.aplicacao.repositories.EntradaRepository;
+import com.empresa.aplicacao.repositories.VendaRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Simulação Monte Carlo do Saldo Mínimo de Caixa.
+ *
+ * PMRE, PMRV, PMPF e gastos anuais são sorteados de normais ajustadas aos dados
+ * (PMRE: diferenças entre pares entrada × venda do produto; PMRV/PMPF: prazos de pagamento).
+ * Os cenários rodam em blocos paralelos (ForkJoin comum), cada bloco com seu SplittableRandom
+ * derivado da semente, então o resultado é reproduzível para a mesma semente.
+ *
+ * Percentis e histograma vêm de um histograma fino (faixa estimada por uma amostra piloto),
+ * sem guardar os cenários. A simulação avança em rodadas; ao fim de cada uma um resultado
+ * parcial é entregue ao consumidor.
+ */
+@Service
+public class SimulacaoCaixaService {
+
+    private static final int TAMANHO_BLOCO = 1 << 16;
+    private static final int CLASSES_INTERNAS = 4096;
+    private static final int CENARIOS_PILOTO = 1 << 16;
+    private static final double Z_P90 = 1.2815515655446004;
+    private static final double[] PERCENTIS = {0.01, 0.05, 0.10, 0.25, 0.50, 0.75, 0.90, 0.95, 0.99};
+
+    @Autowired
+    private EntradaRepository entradaRepository;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Value("${simulacao.max-cenarios:50000000}")
+    private long maxCenarios;
+
+    @Value("${simulacao.cenarios-por-rodada:1000000}")
+    private long cenariosPorRodada;
+
+    /**
+     * Valida e completa a requisição com os valores padrão.
+     */
+    public SimulacaoRequisicao validar(SimulacaoRequisicao req) {
+        if (req == null || req.gastosAnuais() == null) throw new IllegalArgumentException("gastosAnuais obrigatório");
+
+        long cenarios = req.cenarios() == null ? 1_000_000 : req.cenarios();
+        if (cenarios < 1 || cenarios > maxCenarios) {
+            throw new IllegalArgumentException("cenarios deve estar entre 1 e " + maxCenarios);
+        }
+        double desvioGastos = req.desvioGastos() == null ? 0.1 : req.desvioGastos();
+        if (desvioGastos < 0) throw new IllegalArgumentException("desvioGastos não pode ser negativo");
+        int classes = req.classes() == null ? 50 : req.classes();
+        if (classes < 1 || classes > CLASSES_INTERNAS) {
+            throw new IllegalArgumentException("classes deve estar entre 1 e " + CLASSES_INTERNAS);
+        }
+        long semente = req.semente() == null ? System.nanoTime() : req.semente();
+
+        return new SimulacaoRequisicao(cenarios, semente, req.gastosAnuais(), desvioGastos, classes);
+    }
+
+    /**
+     * Ajusta as distribuições aos dados atuais de entradas e vendas do tenant atual.
+     */
+    public Distribuicoes ajustar(double gastosAnuais, double desvioGastos) {
+        AgregadoPrazo prazoEntradas = entradaRepository.agregarPrazo();
+        AgregadoPrazo prazoVendas = vendaRepository.agregarPrazo();
+        String tenant = TenantContexto.atual();
+
+        return new Distribuicoes(
+                dispersaoPares(entradaRepository.agregarDispersaoPorProduto(tenant),
+                        vendaRepository.agregarDispersaoPorProduto(tenant)),
+                new Distribuicao(prazoVendas.media(), prazoVendas.desvioPadrao()),
+                new Distribuicao(prazoEntradas.media(), prazoEntradas.desvioPadrao()),
+                new Distribuicao(gastosAnuais, Math.abs(gastosAnuais) * desvioGastos));
+    }
+
+    public SimulacaoResultado simular(SimulacaoRequisicao requisicao, Consumer<SimulacaoResultado> parciais) {
+        SimulacaoRequisicao req = validar(requisicao);
+        Distribuicoes d = ajustar(req.gastosAnuais(), req.desvioGastos());
+        SplittableRandom raiz = new SplittableRandom(req.semente());
+
+        // Amostra piloto para fixar a faixa do histograma fino
+        Acumulador piloto = simularBloco(raiz.split(), CENARIOS_PILOTO, d, 0, 1);
+        double margem = Math.max(piloto.maximo - piloto.minimo, 1e-9) * 0.5;
+        double inicio = piloto.minimo - margem;
+        double fim = piloto.maximo + margem;
+
+        Acumulador total = new Acumulador(inicio, fim);
+        long restantes = req.cenarios();
+        while (restantes > 0) {
+            int rodada = (int) Math.min(restantes, cenariosPorRodada);
+            int blocos = (rodada + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+
+            // Sementes dos blocos derivadas em sequência: mesmo resultado com qualquer paralelismo
+            SplittableRandom[] geradores = new SplittableRandom[blocos];
+            for (int b = 0; b < blocos; b++) geradores[b] = raiz.split();
+
+            Acumulador parcial = IntStream.range(0, blocos).parallel()
+                    .mapToObj(b -> simularBloco(geradores[b], Math.min(TAMANHO_BLOCO, rodada - b * TAMANHO_BLOCO),
+                            d, inicio, fim))
+                    .reduce(Acumulador::juntar)
+                    .orElseThrow();
+            total.juntar(parcial);
+            restantes -= rodada;
+
+            if (restantes > 0) parciais.accept(resumo(total, req.cenarios(), true, 0, null, null));
+        }
+
+        SimulacaoResultado resultado = resumo(total, req.cenarios(), false, req.classes(), tornado(d), d);
+        parciais.accept(resultado);
+        return resultado;
+    }
+
+    // ---------------------------
+    // --- CENÁRIOS ---
+    // ---------------------------
+
+    private static Acumulador simularBloco(SplittableRandom random, int cenarios, Distribuicoes d,
+                                           double inicio, double fim) {
+        Acumulador acc = new Acumulador(inicio, fim);
+        for (int i = 0; i < cenarios; i++) {
+            double pmre = sortear(random, d.pmre());
+            double pmrv = Math.max(0, sortear(random, d.pmrv()));
+            double pmpf = Math.max(0, sortear(random, d.pmpf()));
+            double gastos = Math.max(0, sortear(random, d.gastos()));
+            acc.adicionar(saldoMinimo(gastos, pmre, pmrv, pmpf));
+        }
+        return acc;
+    }
+
+    private static double sortear(SplittableRandom random, Distribuicao d) {
+        return d.desvio() == 0 ? d.media() : d.media() + d.desvio() * random.nextGaussian();
+    }
+
+    /**
+     * Mesma fórmula de {@link CalculoService#calcularSaldoMinimoCaixa}: gastos / (360 / CC) = gastos × CC / 360.
+     */
+    private static double saldoMinimo(double gastos, double pmre, double pmrv, double pmpf) {
+        return gastos * (pmre + pmrv - pmpf) / 360.0;
+    }
+
+    private static List<BarraTornado> tornado(Distribuicoes d) {
+        List<BarraTornado> barras = new ArrayList<>(List.of(
+                barra("pmre", d.pmre(), false, v -> saldoMinimo(d.gastos().media(), v, d.pmrv().media(), d.pmpf().media())),
+                barra("pmrv", d.pmrv(), true, v -> saldoMinimo(d.gastos().media(), d.pmre().media(), v, d.pmpf().media())),
+                barra("pmpf", d.pmpf(), true, v -> saldoMinimo(d.gastos().media(), d.pmre().media(), d.pmrv().media(), v)),
+                barra("gastos", d.gastos(), true, v -> saldoMinimo(v, d.pmre().media(), d.pmrv().media(), d.pmpf().media()))));
+        barras.sort(Comparator.comparingDouble((BarraTornado b) -> Math.abs(b.saldoAlto() - b.saldoBaixo())).reversed());
+        return barras;
+    }
+
+    private static BarraTornado barra(String variavel, Distribuicao d, boolean naoNegativo,
+                                      DoubleUnaryOperator saldo) {
+        double baixo = d.media() - Z_P90 * d.desvio();
+        double alto = d.media() + Z_P90 * d.desvio();
+        if (naoNegativo) baixo = Math.max(0, baixo);
+        return new BarraTornado(variavel, baixo, alto, saldo.applyAsDouble(baixo), saldo.applyAsDouble(alto));
+    }
+
+    /**
+     * Média e desvio-padrão de (dataVenda - dataEntrada) sobre todos os pares do mesmo produto:
+     * Σ(v - e) = nE·ΣV - nV·ΣE e Σ(v - e)² = nE·ΣV² - 2·ΣV·ΣE + nV·ΣE².
+     */
+    private static Distribuicao dispersaoPares(List<DispersaoProdutoDias> entradas, List<DispersaoProdutoDias> vendas) {
+        int maiorId = -1;
+        for (DispersaoProdutoDias e : entradas) maiorId = Math.max(maiorId, e.getProdutoId().intValue());
+
+        double[] qtd = new double[maiorId + 1];
+        double[] soma = new double[maiorId + 1];
+        double[] quadrados = new double[maiorId + 1];
+        for (DispersaoProdutoDias e : entradas) {
+            int id = e.getProdutoId().intValue();
+            qtd[id] = e.getQuantidade().doubleValue();
+            soma[id] = e.getSomaDias().doubleValue();
+            quadrados[id] = e.getSomaQuadrados().doubleValue();
+        }
+
+        double pares = 0;
+        double somaDif = 0;
+        double somaDifQuadrados = 0;
+        for (DispersaoProdutoDias v : vendas) {
+            int id = v.getProdutoId().intValue();
+            if (id > maiorId || qtd[id] == 0) continue;
+
+            double nV = v.getQuantidade().doubleValue();
+            double somaV = v.getSomaDias().doubleValue();
+            pares += qtd[id] * nV;
+            somaDif += qtd[id] * somaV - nV * soma[id];
+            somaDifQuadrados += qtd[id] * v.getSomaQuadrados().doubleValue() - 2 * somaV * soma[id] + nV * quadrados[id];
+        }
+
+        if (pares == 0) return new Distribuicao(0, 0);
+        double media = somaDif / pares;
+        return new Distribuicao(media, Math.sqrt(Math.max(0, somaDifQuadrados / pares - media * media)));
+    }
+
+    // ---------------------------
+    // --- ESTATÍSTICAS ---
+    // ---------------------------
+
+    private static SimulacaoResultado resumo(Acumulador acc, long total, boolean parcial, int classes,
+                                             List<BarraTornado> tornado, Distribuicoes distribuicoes) {
+        Map<String, Double> percentis = new LinkedHashMap<>();
+        for (double p : PERCENTIS) percentis.put("p" + Math.round(p * 100), acc.percentil(p));
+
+        return new SimulacaoResultado(parcial, acc.n, total, acc.media, acc.desvio(), acc.minimo, acc.maximo,
+                percentis, classes > 0 ? acc.histograma(classes) : null, tornado, distribuicoes);
+    }
+
+    /**
+     * Estatísticas de um conjunto de cenários: média/variância (Welford, com junção de Chan),
+     * mínimo, máximo e histograma fino na faixa [inicio, fim] (valores fora vão para as pontas).
+     */
+    private static final class Acumulador {
+        final double inicio;
+        final double largura;
+        final long[] contagem = new long[CLASSES_INTERNAS];
+        long n;
+        double media;
+        double m2;
+        double minimo = Double.POSITIVE_INFINITY;
+        double maximo = Double.NEGATIVE_INFINITY;
+
+        Acumulador(double inicio, double fim) {
+            this.inicio = inicio;
+            this.largura = (fim - inicio) / CLASSES_INTERNAS;
+        }
+
+        void adicionar(double x) {
+            n++;
+            double delta = x - media;
+            media += delta / n;
+            m2 += delta * (x - media);
+            if (x < minimo) minimo = x;
+            if (x > maximo) maximo = x;
+
+            int classe = (int) ((x - inicio) / largura);
+            contagem[Math.max(0, Math.min(CLASSES_INTERNAS - 1, classe))]++;
+        }
+
+        Acumulador juntar(Acumulador outro) {
+            if (outro.n == 0) return this;
+            long total = n + outro.n;
+            double delta = outro.media - media;
+            media += delta * outro.n / total;
+            m2 += outro.m2 + delta * delta * ((double) n * outro.n / total);
+            n = total;
+            minimo = Math.min(minimo, outro.minimo);
+            maximo = Math.max(maximo, outro.maximo);
+            for (int i = 0; i < CLASSES_INTERNAS; i++) contagem[i] += outro.contagem[i];
+            return this;
+        }
+
+        double desvio() {
+            return n > 1 ? Math.sqrt(m2 / (n - 1)) : 0;
+        }
+
+        double percentil(double p) {
+            double alvo = p * n;
+            long acumulado = 0;
+            for (int i = 0; i < CLASSES_INTERNAS; i++) {
+                if (contagem[i] == 0) continue;
+                if (acumulado + contagem[i] >= alvo) {
+                    double valor = inicio + largura * (i + (alvo - acumulado) / contagem[i]);
+                    return Math.max(minimo, Math.min(maximo, valor));
+                }
+                acumulado += contagem[i];
+            }
+            return maximo;
+        }
+
+        List<Classe> histograma(int classes) {
+            List<Classe> resultado = new ArrayList<>(classes);
+            int porClasse = (CLASSES_INTERNAS + classes - 1) / classes;
+            for (int c = 0; c * porClasse < CLASSES_INTERNAS; c++) {
+                int de = c * porClasse;
+                int ate = Math.min(CLASSES_INTERNAS, de + porClasse);
+                long quantidade = 0;
+                for (int i = de; i < ate; i++) quantidade += contagem[i];
+                resultado.add(new Classe(inicio + de * largura, inicio + ate * largura, quantidade));
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.empresa.aplicacao.tenant;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Tenant da thread atual: o definido por {@link #executar} (jobs, tarefas agendadas, respostas
+ * em streaming) ou, numa requisição, o subject do JWT autenticado (e-mail normalizado).
+ * Sem nenhum dos dois não há tenant: {@link #atual} falha com 401 em vez de escolher um.
+ */
+public final class TenantContexto {
+
+	/** Dono dos dados gravados antes do particionamento (migração V7); nenhum login resolve para ele. */
+	public static final String PADRAO = "padrao";
+
+	/** Tamanho da coluna tenant_id (maior e-mail válido). */
+	public static final int TAMANHO_MAXIMO = 254;
+
+	private static final ThreadLocal<String> definido = new ThreadLocal<>();
+
+	private TenantContexto() {
+	}
+
+	/**
+	 * Tenant da thread atual; sem tenant definido nem usuário autenticado lança
+	 * AuthenticationCredentialsNotFoundException (respondida com 401 pelo Spring Security).
+	 */
+	public static String atual() {
+		String tenant = resolver();
+		if (tenant == null) throw new AuthenticationCredentialsNotFoundException("tenant não identificado");
+		return tenant;
+	}
+
+	/**
+	 * Tenant da thread atual, ou null se não houver.
+	 */
+	public static String resolver() {
+		String tenant = definido.get();
+		if (tenant != null) return tenant;
+
+		Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+		if (autenticacao == null || !autenticacao.isAuthenticated()
+				|| autenticacao instanceof AnonymousAuthenticationToken || autenticacao.getName() == null) {
+			return null;
+		}
+		return normalizar(autenticacao.getName());
+	}
+
+	public static String normalizar(String subject) {
+		String tenant = subject.trim().toLowerCase(Locale.ROOT);
+		if (tenant.isEmpty() || tenant.length() > TAMANHO_MAXIMO) {
+			throw new IllegalArgumentException("tenant inválido");
+		}
+		return tenant;
+	}
+
+	/**
+	 * Executa a ação como o tenant informado (ex.: em outra thread, onde não há requisição).
+	 */
+	public static <T> T executar(String tenant, Supplier<T> acao) {
+		String anterior = definido.get();
+		definido.set(tenant);
+		try {
+			return acao.get();
+		} finally {
+			if (anterior == null) definido.remove();
+			else definido.set(anterior);
+		}
+	}
+
+	public static void executar(String tenant, Runnable acao) {
+		executar(tenant, () -> {
+			acao.run();
+			return null;
+		});
+	}
+}
@@ -0,0 +1,26 @@
+package com.empresa.aplicacao.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Informa ao Hibernate o tenant de cada sessão aberta; as entidades com @TenantId são
+ * gravadas com ele e todas as consultas JPQL e buscas por id passam a filtrar por ele.
+ *
+ * Sessões abertas fora de um tenant (inicialização, tarefas de sistema) recebem
+ * {@link #SEM_TENANT}, que não corresponde a nenhum dado.
+ */
+public class TenantResolver implements CurrentTenantIdentifierResolver<String> {
+
+	static final String SEM_TENANT = "";
+
+	@Override
+	public String resolveCurrentTenantIdentifier() {
+		String tenant = TenantContexto.resolver();
+		return tenant != null ? tenant : SEM_TENANT;
+	}
+
+	@Override
+	public boolean validateExistingCurrentSessions() {
+		return false;
+	}
+}
@@ -0,0 +1,52 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Remove o que ficou da chave de produto por nome (antes do catálogo de V2): a tabela
+ * agregado_produto, com linhas por nome, e a coluna entrada.produto_chave com seu índice.
+ * Só bancos que rodaram essas versões (ddl-auto=update) os têm; o MySQL não aceita
+ * "drop column if exists", então a existência é conferida pelos metadados.
+ */
+public class V9__remover_chave_produto_legada extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexao = context.getConnection();
+        DatabaseMetaData meta = conexao.getMetaData();
+
+        try (Statement st = conexao.createStatement()) {
+            if (existe(meta.getTables(conexao.getCatalog(), conexao.getSchema(), "agregado_produto", new String[]{"TABLE"}))) {
+                st.execute("drop table agregado_produto");
+            }
+            if (existe(meta.getColumns(conexao.getCatalog(), conexao.getSchema(), "entrada", "produto_chave"))) {
+                if (temIndice(meta, conexao, "entrada", "idx_entrada_produto_chave")) {
+                    st.execute("drop index idx_entrada_produto_chave on entrada");
+                }
+                st.execute("alter table entrada drop column produto_chave");
+            }
+        }
+    }
+
+    private static boolean existe(ResultSet rs) throws SQLException {
+        try (rs) {
+            return rs.next();
+        }
+    }
+
+    private static boolean temIndice(DatabaseMetaData meta, Connection conexao, String tabela, String indice) throws SQLException {
+        try (ResultSet rs = meta.getIndexInfo(conexao.getCatalog(), conexao.getSchema(), tabela, false, false)) {
+            while (rs.next()) {
+                if (indice.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+-- Esquema como era gerado pelo Hibernate (ddl-auto=update) antes das migrações. Bancos já
+-- existentes são marcados nesta versão pelo baseline (spring.flyway.baseline-on-migrate) e
+-- recebem a partir da V2 cada tabela ou coluna nova.
+
+create table entrada (
+    id bigint not null auto_increment,
+    data_entrada date,
+    fornecedor varchar(255),
+    produto varchar(255),
+    preco_compra double precision not null,
+    prazo_pagto integer not null,
+    primary key (id)
+);
+
+create table venda (
+    id bigint not null auto_increment,
+    data_venda date,
+    cliente varchar(255),
+    produto varchar(255),
+    preco_venda double precision not null,
+    prazo_pagto integer not null,
+    primary key (id)
+);
+
+create table gestao (
+    id bigint not null auto_increment,
+    previsao_gastos double precision not null,
+    primary key (id)
+);
+
+create table gestao_historico (
+    id bigint not null auto_increment,
+    data_calculo date,
+    ciclo_caixa double precision not null,
+    saldo_minimo double precision not null,
+    primary key (id)
+);
@@ -0,0 +1,18 @@
+-- Catálogo de produtos: entradas e vendas passam a referenciar o produto por id.
+-- As linhas existentes são vinculadas na inicialização (ProdutoCatalogo.carregar).
+
+create table produto (
+    id integer not null auto_increment,
+    nome varchar(255),
+    chave varchar(255),
+    primary key (id),
+    constraint uk_produto_chave unique (chave)
+);
+
+alter table entrada add column produto_id integer;
+alter table entrada add constraint fk_entrada_produto foreign key (produto_id) references produto (id);
+create index idx_entrada_produto on entrada (produto_id);
+
+alter table venda add column produto_id integer;
+alter table venda add constraint fk_venda_produto foreign key (produto_id) references produto (id);
+create index idx_venda_produto on venda (produto_id);
@@ -0,0 +1,23 @@
+-- Snapshot dos acumuladores dos indicadores (IndicadoresIncrementais): totais e, por
+-- produto do catálogo, quantidades e somas de datas.
+
+create table agregado_totais (
+    id bigint not null,
+    qtd_entradas bigint not null,
+    soma_prazo_entradas bigint not null,
+    qtd_vendas bigint not null,
+    soma_prazo_vendas bigint not null,
+    soma_dias_pares bigint not null,
+    qtd_pares bigint not null,
+    atualizado_em datetime(6),
+    primary key (id)
+);
+
+create table agregado_produto_catalogo (
+    produto_id integer not null,
+    qtd_entradas bigint not null,
+    soma_dias_entradas bigint not null,
+    qtd_vendas bigint not null,
+    soma_dias_vendas bigint not null,
+    primary key (produto_id)
+);
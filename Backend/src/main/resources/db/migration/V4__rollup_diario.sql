@@ -0,0 +1,12 @@
+-- Rollups diários de entradas e vendas (RollupDiarioService); reconstruídos a partir das
+-- transações na inicialização quando a tabela está vazia.
+
+create table rollup_diario (
+    dia date not null,
+    tipo varchar(1) not null,
+    produto_id integer not null,
+    contraparte varchar(255) not null,
+    qtd bigint not null,
+    soma_prazo bigint not null,
+    primary key (dia, tipo, produto_id, contraparte)
+);
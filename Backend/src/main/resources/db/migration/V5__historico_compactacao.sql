@@ -0,0 +1,11 @@
+-- Compactação do histórico de gestão (HistoricoSerieService): um ponto mesclado guarda
+-- quantos pontos representa e os extremos do período.
+
+alter table gestao_historico add column pontos integer;
+alter table gestao_historico add column ciclo_caixa_min double precision;
+alter table gestao_historico add column ciclo_caixa_max double precision;
+alter table gestao_historico add column saldo_minimo_min double precision;
+alter table gestao_historico add column saldo_minimo_max double precision;
+
+-- Série e compactação por faixa de datas
+create index idx_historico_data on gestao_historico (data_calculo);
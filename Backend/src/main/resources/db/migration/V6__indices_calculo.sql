@@ -0,0 +1,14 @@
+-- Índices para os padrões de acesso dos cálculos e listagens.
+-- (No InnoDB todo índice secundário termina implicitamente no id.)
+
+-- PMRE por produto: group by produto_id somando as datas, lido só do índice
+create index idx_entrada_produto_data on entrada (produto_id, data_entrada);
+create index idx_venda_produto_data on venda (produto_id, data_venda);
+
+-- Listagens, exportação e rollups por período: faixa de datas (data, id)
+create index idx_entrada_data on entrada (data_entrada);
+create index idx_venda_data on venda (data_venda);
+
+-- PMPF/PMRV: count, sum(prazo) e sum(prazo²) varrendo só o índice, sem ler as linhas
+create index idx_entrada_prazo on entrada (prazo_pagto);
+create index idx_venda_prazo on venda (prazo_pagto);
@@ -0,0 +1,70 @@
+-- Particionamento por tenant (subject do JWT, ver TenantContexto).
+-- Dados existentes ficam no tenant 'padrao'; as consultas de cálculo passam a filtrar
+-- por tenant, então os índices de V6 ganham tenant_id como primeira coluna.
+
+alter table entrada add column tenant_id varchar(254) default 'padrao' not null;
+alter table venda add column tenant_id varchar(254) default 'padrao' not null;
+alter table gestao add column tenant_id varchar(254) default 'padrao' not null;
+alter table gestao_historico add column tenant_id varchar(254) default 'padrao' not null;
+
+drop index idx_entrada_produto_data on entrada;
+drop index idx_venda_produto_data on venda;
+drop index idx_entrada_data on entrada;
+drop index idx_venda_data on venda;
+drop index idx_entrada_prazo on entrada;
+drop index idx_venda_prazo on venda;
+drop index idx_historico_data on gestao_historico;
+
+-- PMRE por produto dentro do tenant
+create index idx_entrada_tenant_produto_data on entrada (tenant_id, produto_id, data_entrada);
+create index idx_venda_tenant_produto_data on venda (tenant_id, produto_id, data_venda);
+
+-- Listagens, exportação e rollups por período
+create index idx_entrada_tenant_data on entrada (tenant_id, data_entrada);
+create index idx_venda_tenant_data on venda (tenant_id, data_venda);
+
+-- PMPF/PMRV só do índice
+create index idx_entrada_tenant_prazo on entrada (tenant_id, prazo_pagto);
+create index idx_venda_tenant_prazo on venda (tenant_id, prazo_pagto);
+
+create index idx_gestao_tenant on gestao (tenant_id);
+create index idx_historico_tenant_data on gestao_historico (tenant_id, data_calculo);
+
+-- Snapshots e rollup são derivados: recriados com o tenant na chave e reconstruídos
+-- a partir das transações na primeira leitura de cada tenant
+drop table agregado_totais;
+drop table agregado_produto_catalogo;
+drop table rollup_diario;
+
+create table agregado_totais (
+    tenant_id varchar(254) not null,
+    qtd_entradas bigint not null,
+    soma_prazo_entradas bigint not null,
+    qtd_vendas bigint not null,
+    soma_prazo_vendas bigint not null,
+    soma_dias_pares bigint not null,
+    qtd_pares bigint not null,
+    atualizado_em datetime(6),
+    primary key (tenant_id)
+);
+
+create table agregado_produto_catalogo (
+    tenant_id varchar(254) not null,
+    produto_id integer not null,
+    qtd_entradas bigint not null,
+    soma_dias_entradas bigint not null,
+    qtd_vendas bigint not null,
+    soma_dias_vendas bigint not null,
+    primary key (tenant_id, produto_id)
+);
+
+create table rollup_diario (
+    tenant_id varchar(254) not null,
+    dia date not null,
+    tipo varchar(1) not null,
+    produto_id integer not null,
+    contraparte varchar(255) not null,
+    qtd bigint not null,
+    soma_prazo bigint not null,
+    primary key (tenant_id, dia, tipo, produto_id, contraparte)
+);
@@ -0,0 +1,43 @@
+-- Log append-only das alterações em entradas e vendas (ver LedgerEventos) e snapshots
+-- periódicos dos acumuladores dos indicadores, para reproduzir o estado em qualquer data.
+
+create table ledger_evento (
+    id bigint not null auto_increment,
+    tenant_id varchar(254) not null,
+    registrado_em datetime(6) not null,
+    -- 'E' entrada / 'V' venda; 'C' criação / 'R' remoção
+    tipo char(1) not null,
+    operacao char(1) not null,
+    registro_id bigint,
+    produto_id integer,
+    dia date,
+    prazo integer not null,
+    primary key (id)
+);
+
+-- Reprodução por faixa de id dentro do tenant (o InnoDB completa o índice com o id)
+create index idx_ledger_evento_tenant on ledger_evento (tenant_id);
+-- Último evento do tenant antes de uma data
+create index idx_ledger_evento_tenant_registro on ledger_evento (tenant_id, registrado_em);
+-- Cada registro é criado e removido no máximo uma vez (os da importação em lote não têm id)
+create unique index uk_ledger_evento_registro on ledger_evento (tenant_id, tipo, registro_id, operacao);
+
+create table ledger_snapshot (
+    id bigint not null auto_increment,
+    tenant_id varchar(254) not null,
+    -- Inclui todos os eventos do tenant com id <= ultimo_evento
+    ultimo_evento bigint not null,
+    eventos bigint not null,
+    criado_em datetime(6) not null,
+    -- Acumuladores em binário (Acumuladores.gravar)
+    dados longblob not null,
+    primary key (id)
+);
+create index idx_ledger_snapshot_tenant_evento on ledger_snapshot (tenant_id, ultimo_evento);
+
+-- O que já está no banco entra no log como criado agora
+insert into ledger_evento (tenant_id, registrado_em, tipo, operacao, registro_id, produto_id, dia, prazo)
+select tenant_id, current_timestamp(6), 'E', 'C', id, produto_id, data_entrada, prazo_pagto from entrada order by id;
+
+insert into ledger_evento (tenant_id, registrado_em, tipo, operacao, registro_id, produto_id, dia, prazo)
+select tenant_id, current_timestamp(6), 'V', 'C', id, produto_id, data_venda, prazo_pagto from venda order by id;
@@ -0,0 +1,208 @@
+package com.empresa.aplicacao.config;
+
+import com.empresa.aplicacao.repositories.EntradaRepository;
+import com.empresa.aplicacao.repositories.GestaoHistoricoRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.empresa.aplicacao.tenant.TenantResolver;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * H2 em memória no papel de primário e réplicas; cada banco responde o próprio
+ * nome, então a consulta mostra para onde a conexão foi roteada.
+ */
+class RoteamentoDataSourceTest {
+
+    private static final String TENANT = "a@empresa.com";
+
+    private HikariDataSource primario;
+    private HikariDataSource replica;
+    private RoteamentoDataSource roteamento;
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transacoes;
+
+    @BeforeEach
+    void criarBancos() {
+        primario = banco("primario");
+        replica = banco("replica1");
+        usar(List.of(replica));
+    }
+
+    @AfterEach
+    void fechar() {
+        roteamento.close();
+        primario.close();
+    }
+
+    @Test
+    void transacaoSomenteLeituraVaiParaReplica() {
+        assertEquals("replica1", origem(true));
+    }
+
+    @Test
+    void escritaESemTransacaoVaoParaPrimario() {
+        assertEquals("primario", origem(false));
+        assertEquals("primario", jdbc.queryForObject("select nome from origem", String.class));
+    }
+
+    @Test
+    void noPrimarioIgnoraReplicaEmLeitura() {
+        assertEquals("primario", RoteamentoDataSource.noPrimario(() -> origem(true)));
+        assertEquals("replica1", origem(true));
+    }
+
+    @Test
+    void replicaForaDoArCaiNoPrimario() {
+        replica.close();
+
+        assertEquals("primario", origem(true));
+        roteamento.verificar();
+        assertFalse((Boolean) roteamento.estado().get(0).get("saudavel"));
+        assertEquals("primario", origem(true));
+    }
+
+    @Test
+    void credenciaisPorConexaoNaoSaoSuportadas() {
+        assertThrows(SQLFeatureNotSupportedException.class, () -> roteamento.getConnection("sa", ""));
+    }
+
+    @Test
+    void leiturasSeDistribuemEntreReplicas() {
+        roteamento.close();
+        usar(List.of(banco("replica1"), banco("replica2")));
+
+        Set<String> origens = new HashSet<>();
+        for (int i = 0; i < 4; i++) origens.add(origem(true));
+        assertEquals(Set.of("replica1", "replica2"), origens);
+    }
+
+    @Test
+    void listagensDosRepositoriosVaoParaReplica() {
+        // Primário e réplica com o esquema das migrações e dados que identificam cada um
+        HikariDataSource primarioJpa = bancoMigrado("primario_jpa", "primario");
+        HikariDataSource replicaJpa = bancoMigrado("replica_jpa", "replica");
+        RoteamentoDataSource roteamentoJpa = new RoteamentoDataSource(primarioJpa, List.of(replicaJpa), 0, new SimpleMeterRegistry());
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.registerBean(DataSource.class, () -> new LazyConnectionDataSourceProxy(roteamentoJpa));
+            contexto.register(JpaConfig.class);
+            contexto.refresh();
+
+            EntradaRepository entradas = contexto.getBean(EntradaRepository.class);
+            GestaoHistoricoRepository historico = contexto.getBean(GestaoHistoricoRepository.class);
+            TenantContexto.executar(TENANT, () -> {
+                assertEquals("replica", entradas.buscarPagina(0, null, null, null, null, Limit.of(10)).get(0).getFornecedor());
+                assertEquals(2.0, historico.buscarUltimos(Limit.of(10)).get(0).getCicloCaixa());
+                assertEquals(2.0, historico.buscarPrimeiraPagina(null, null, Limit.of(10)).get(0).getCicloCaixa());
+            });
+        } finally {
+            roteamentoJpa.close();
+            primarioJpa.close();
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = EntradaRepository.class, includeFilters = @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE, classes = {EntradaRepository.class, GestaoHistoricoRepository.class}))
+    static class JpaConfig {
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+            fabrica.setDataSource(dataSource);
+            fabrica.setPackagesToScan("com.empresa.aplicacao.models");
+            fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            fabrica.setJpaPropertyMap(Map.of(
+                    "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                    "hibernate.tenant_identifier_resolver", new TenantResolver()));
+            return fabrica;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+
+    private static HikariDataSource bancoMigrado(String nome, String origem) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + nome + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setPoolName(nome);
+        config.setMaximumPoolSize(2);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into entrada (data_entrada, fornecedor, produto, preco_compra, prazo_pagto, tenant_id) "
+                + "values ('2024-01-01', ?, 'Arroz', 10, 30, ?)", origem, TENANT);
+        jdbc.update("insert into gestao_historico (data_calculo, ciclo_caixa, saldo_minimo, tenant_id) values ('2024-01-01', ?, 1, ?)",
+                origem.equals("replica") ? 2 : 1, TENANT);
+        return dataSource;
+    }
+
+    private String origem(boolean somenteLeitura) {
+        TransactionTemplate transacao = new TransactionTemplate(transacoes);
+        transacao.setReadOnly(somenteLeitura);
+        return transacao.execute(status -> jdbc.queryForObject("select nome from origem", String.class));
+    }
+
+    private void usar(List<HikariDataSource> replicas) {
+        roteamento = new RoteamentoDataSource(primario, replicas, 0, new SimpleMeterRegistry());
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(roteamento);
+        jdbc = new JdbcTemplate(dataSource);
+        transacoes = new DataSourceTransactionManager(dataSource);
+    }
+
+    private static HikariDataSource banco(String nome) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setPoolName(nome);
+        config.setMaximumPoolSize(2);
+        config.setConnectionTimeout(250);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists origem (nome varchar(20))");
+        jdbc.update("delete from origem");
+        jdbc.update("insert into origem (nome) values (?)", nome);
+        return dataSource;
+    }
+}
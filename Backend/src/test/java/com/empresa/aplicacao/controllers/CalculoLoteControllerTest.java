@@ -0,0 +1,59 @@
+package com.empresa.aplicacao.controllers;
+
+import com.empresa.aplicacao.services.CalculoLoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CalculoLoteControllerTest {
+
+    private CalculoLoteController controller;
+
+    @BeforeEach
+    void criar() {
+        controller = new CalculoLoteController();
+        ReflectionTestUtils.setField(controller, "calculoLoteService", new CalculoLoteService());
+    }
+
+    @Test
+    void quantidadeDeclaradaMaiorQueOCorpoERejeitadaAntesDeAlocar() {
+        // 4 bytes declarando 5 milhões de itens
+        MockHttpServletRequest request = requisicao(ByteBuffer.allocate(4).putInt(5_000_000).array());
+        assertThrows(IllegalArgumentException.class, () -> controller.calcularProdutividadeBinario(request));
+    }
+
+    @Test
+    void corpoCurtoSemContentLengthFalhaNaPrimeiraColuna() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/calculos/lote/estoque") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(ByteBuffer.allocate(12).putInt(5_000_000).putDouble(1).array());
+        assertThrows(IllegalArgumentException.class, () -> controller.calcularEstoqueBinario(request));
+    }
+
+    @Test
+    void corpoCompletoDevolveAsColunas() throws IOException {
+        ByteBuffer corpo = ByteBuffer.allocate(4 + 4 * 8).putInt(1);
+        for (double v : new double[]{1000, 50, 2, 0}) corpo.putDouble(v);
+
+        ByteBuffer resposta = ByteBuffer.wrap(controller.calcularEstoqueBinario(requisicao(corpo.array())));
+        assertEquals(1, resposta.getInt());
+        assertEquals(Math.sqrt(2 * 1000 * 50 / 2.0), resposta.getDouble(), 1e-9);
+    }
+
+    private static MockHttpServletRequest requisicao(byte[] corpo) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/calculos/lote");
+        request.setContent(corpo);
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package com.empresa.aplicacao.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aplica as migrações (db/migration) num H2 em modo MySQL e confere, pelo EXPLAIN, que as
+ * consultas de listagem e de cálculo usam os índices criados. Os dados ficam divididos
+ * entre dois tenants e toda consulta filtra pelo tenant, como as da aplicação.
+ */
+class IndicesConsultaTest {
+
+    private static final String URL = "jdbc:h2:mem:indices;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static Connection conexao;
+
+    @BeforeAll
+    static void migrarEPopular() throws SQLException {
+        Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+        conexao = DriverManager.getConnection(URL, "sa", "");
+
+        try (Statement st = conexao.createStatement()) {
+            for (int p = 1; p <= 50; p++) {
+                st.execute("insert into produto (nome, chave) values ('p" + p + "', 'p" + p + "')");
+            }
+        }
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        try (PreparedStatement entrada = conexao.prepareStatement(
+                "insert into entrada (data_entrada, fornecedor, produto, produto_id, preco_compra, prazo_pagto, tenant_id) values (?, 'f', 'p', ?, 10, ?, ?)");
+             PreparedStatement venda = conexao.prepareStatement(
+                     "insert into venda (data_venda, cliente, produto, produto_id, preco_venda, prazo_pagto, tenant_id) values (?, 'c', 'p', ?, 15, ?, ?)");
+             PreparedStatement historico = conexao.prepareStatement(
+                     "insert into gestao_historico (data_calculo, ciclo_caixa, saldo_minimo, tenant_id) values (?, 1, 1, ?)")) {
+            for (int i = 0; i < 5000; i++) {
+                java.sql.Date dia = java.sql.Date.valueOf(inicio.plusDays(i % 365));
+                String tenant = i % 2 == 0 ? "a@empresa.com" : "b@empresa.com";
+                entrada.setDate(1, dia);
+                entrada.setInt(2, 1 + i % 50);
+                entrada.setInt(3, i % 90);
+                entrada.setString(4, tenant);
+                entrada.addBatch();
+                venda.setDate(1, dia);
+                venda.setInt(2, 1 + i % 50);
+                venda.setInt(3, i % 60);
+                venda.setString(4, tenant);
+                venda.addBatch();
+                historico.setDate(1, dia);
+                historico.setString(2, tenant);
+                historico.addBatch();
+            }
+            entrada.executeBatch();
+            venda.executeBatch();
+            historico.executeBatch();
+        }
+        try (Statement st = conexao.createStatement()) {
+            st.execute("analyze");
+        }
+    }
+
+    @AfterAll
+    static void fechar() throws SQLException {
+        conexao.close();
+    }
+
+    @Test
+    void listagemPorPeriodoUsaIndiceDeData() throws SQLException {
+        assertUsa("idx_entrada_tenant_data",
+                "select * from entrada where tenant_id = 'a@empresa.com' and data_entrada >= date '2024-03-01' "
+                        + "and data_entrada <= date '2024-03-10' and id > 0 order by id");
+        assertUsa("idx_venda_tenant_data",
+                "select * from venda where tenant_id = 'a@empresa.com' and data_venda >= date '2024-03-01' "
+                        + "and data_venda <= date '2024-03-10' and id > 0 order by id");
+    }
+
+    @Test
+    void filtroPorProdutoEPeriodoUsaIndiceComposto() throws SQLException {
+        assertUsa("idx_entrada_tenant_produto_data",
+                "select * from entrada where tenant_id = 'a@empresa.com' and produto_id = 7 "
+                        + "and data_entrada >= date '2024-03-01' and data_entrada <= date '2024-03-10'");
+        assertUsa("idx_venda_tenant_produto_data",
+                "select * from venda where tenant_id = 'a@empresa.com' and produto_id = 7 "
+                        + "and data_venda >= date '2024-03-01' and data_venda <= date '2024-03-10'");
+    }
+
+    @Test
+    void serieDoHistoricoUsaIndiceDeData() throws SQLException {
+        assertUsa("idx_historico_tenant_data",
+                "select * from gestao_historico where tenant_id = 'a@empresa.com' "
+                        + "and data_calculo between date '2024-02-01' and date '2024-02-29' order by data_calculo, id");
+    }
+
+    @Test
+    void paginaDoHistoricoUsaIndiceDeData() throws SQLException {
+        assertUsa("idx_historico_tenant_data",
+                "select * from gestao_historico where tenant_id = 'a@empresa.com' "
+                        + "and (data_calculo > date '2024-02-01' or (data_calculo = date '2024-02-01' and id > 100)) "
+                        + "order by data_calculo, id limit 100");
+    }
+
+    private static void assertUsa(String indice, String sql) throws SQLException {
+        StringBuilder plano = new StringBuilder();
+        try (Statement st = conexao.createStatement(); ResultSet rs = st.executeQuery("explain " + sql)) {
+            while (rs.next()) plano.append(rs.getString(1)).append('\n');
+        }
+        assertTrue(plano.toString().toLowerCase().contains(indice), () -> "esperado " + indice + " no plano:\n" + plano);
+    }
+}
@@ -0,0 +1,94 @@
+package com.empresa.aplicacao.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Banco criado pelo ddl-auto=update antes das migrações (só as quatro tabelas originais):
+ * entra no baseline (V1) e recebe o restante das migrações sem perder dados.
+ */
+class MigracaoBaselineTest {
+
+    private static final String URL = "jdbc:h2:mem:baseline;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String URL_LEGADO = "jdbc:h2:mem:baseline_legado;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void bancoExistenteRecebeAsMigracoesAposOBaseline() throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(URL, "sa", "");
+             Statement st = conexao.createStatement()) {
+            criarTabelasOriginais(st);
+            st.execute("insert into entrada (data_entrada, fornecedor, produto, preco_compra, prazo_pagto) "
+                    + "values ('2024-01-01', 'f', 'Arroz', 10, 30)");
+            st.execute("insert into venda (data_venda, cliente, produto, preco_venda, prazo_pagto) "
+                    + "values ('2024-01-10', 'c', 'Arroz', 15, 20)");
+
+            Flyway.configure().dataSource(URL, "sa", "").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+            try (ResultSet rs = st.executeQuery("select tenant_id, produto_id from entrada")) {
+                assertTrue(rs.next());
+                assertEquals("padrao", rs.getString(1));
+                // Vinculado ao catálogo na inicialização (ProdutoCatalogo)
+                assertNull(rs.getObject(2));
+            }
+            try (ResultSet rs = st.executeQuery("select count(*) from ledger_evento")) {
+                assertTrue(rs.next());
+                assertEquals(2, rs.getInt(1));
+            }
+            // Colunas da compactação do histórico
+            try (ResultSet rs = st.executeQuery("select count(*) from gestao_historico where pontos is null and ciclo_caixa_min is null")) {
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void chaveDeProdutoPorNomeERemovida() throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(URL_LEGADO, "sa", "");
+             Statement st = conexao.createStatement()) {
+            criarTabelasOriginais(st);
+            // Versões anteriores ao catálogo: chave por nome na entrada e snapshot por nome
+            st.execute("alter table entrada add column produto_chave varchar(255)");
+            st.execute("create index idx_entrada_produto_chave on entrada (produto_chave)");
+            st.execute("create table agregado_produto (produto varchar(255) not null, qtd_entradas bigint not null, "
+                    + "soma_dias_entradas bigint not null, qtd_vendas bigint not null, soma_dias_vendas bigint not null, primary key (produto))");
+            st.execute("insert into agregado_produto values ('arroz', 1, 19723, 0, 0)");
+            st.execute("insert into entrada (data_entrada, fornecedor, produto, produto_chave, preco_compra, prazo_pagto) "
+                    + "values ('2024-01-01', 'f', 'Arroz', 'arroz', 10, 30)");
+
+            Flyway.configure().dataSource(URL_LEGADO, "sa", "").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+            try (ResultSet rs = conexao.getMetaData().getTables(null, null, "agregado_produto", null)) {
+                assertFalse(rs.next());
+            }
+            try (ResultSet rs = conexao.getMetaData().getColumns(null, null, "entrada", "produto_chave")) {
+                assertFalse(rs.next());
+            }
+            try (ResultSet rs = st.executeQuery("select count(*) from entrada")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    private static void criarTabelasOriginais(Statement st) throws SQLException {
+        st.execute("create table entrada (id bigint not null auto_increment, data_entrada date, fornecedor varchar(255), "
+                + "produto varchar(255), preco_compra double precision not null, prazo_pagto integer not null, primary key (id))");
+        st.execute("create table venda (id bigint not null auto_increment, data_venda date, cliente varchar(255), "
+                + "produto varchar(255), preco_venda double precision not null, prazo_pagto integer not null, primary key (id))");
+        st.execute("create table gestao (id bigint not null auto_increment, previsao_gastos double precision not null, primary key (id))");
+        st.execute("create table gestao_historico (id bigint not null auto_increment, data_calculo date, "
+                + "ciclo_caixa double precision not null, saldo_minimo double precision not null, primary key (id))");
+    }
+}
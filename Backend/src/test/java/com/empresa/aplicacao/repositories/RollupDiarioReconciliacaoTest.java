@@ -0,0 +1,63 @@
+package com.empresa.aplicacao.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Conferência do rollup na inicialização: um tenant cujo rollup perdeu deltas (queda antes
+ * da descarga) aparece como divergente; um rollup reconstruído não.
+ */
+class RollupDiarioReconciliacaoTest {
+
+    private static final String URL = "jdbc:h2:mem:rollup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void encontraTenantsComDeltasPerdidos() throws SQLException {
+        Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+        try (Connection conexao = DriverManager.getConnection(URL, "sa", "");
+             Statement st = conexao.createStatement()) {
+            st.execute("insert into produto (id, nome, chave) values (1, 'Arroz', 'arroz')");
+            for (String tenant : List.of("a@empresa.com", "b@empresa.com")) {
+                st.execute("insert into entrada (data_entrada, fornecedor, produto, produto_id, preco_compra, prazo_pagto, tenant_id) "
+                        + "values ('2024-01-01', 'F', 'Arroz', 1, 10, 30, '" + tenant + "')");
+                st.execute("insert into venda (data_venda, cliente, produto, produto_id, preco_venda, prazo_pagto, tenant_id) "
+                        + "values ('2024-01-10', 'C', 'Arroz', 1, 15, 20, '" + tenant + "')");
+            }
+            // Sem rollup nenhum: os dois tenants divergem
+            assertEquals(List.of("a@empresa.com", "b@empresa.com"), divergentes(st));
+
+            st.execute("insert into rollup_diario values ('a@empresa.com', '2024-01-01', 'E', 1, 'f', 1, 30)");
+            st.execute("insert into rollup_diario values ('a@empresa.com', '2024-01-10', 'V', 1, 'c', 1, 20)");
+            st.execute("insert into rollup_diario values ('b@empresa.com', '2024-01-01', 'E', 1, 'f', 1, 30)");
+            st.execute("insert into rollup_diario values ('b@empresa.com', '2024-01-10', 'V', 1, 'c', 1, 20)");
+            assertEquals(List.of(), divergentes(st));
+
+            // Venda gravada, delta perdido antes da descarga
+            st.execute("insert into venda (data_venda, cliente, produto, produto_id, preco_venda, prazo_pagto, tenant_id) "
+                    + "values ('2024-01-10', 'C', 'Arroz', 1, 15, 20, 'b@empresa.com')");
+            assertEquals(List.of("b@empresa.com"), divergentes(st));
+
+            // Remoção cujo delta se perdeu: o rollup fica com uma linha a mais
+            st.execute("delete from entrada where tenant_id = 'a@empresa.com'");
+            assertEquals(List.of("a@empresa.com", "b@empresa.com"), divergentes(st));
+        }
+    }
+
+    private static List<String> divergentes(Statement st) throws SQLException {
+        List<String> tenants = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery(RollupDiarioRepository.SQL_TENANTS_DIVERGENTES + " order by tenant_id")) {
+            while (rs.next()) tenants.add(rs.getString(1));
+        }
+        return tenants;
+    }
+}
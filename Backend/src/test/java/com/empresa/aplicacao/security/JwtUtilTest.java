@@ -0,0 +1,81 @@
+package com.empresa.aplicacao.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void criar() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "tamanhoMaximoCache", 100L);
+        jwtUtil.iniciar();
+    }
+
+    @AfterEach
+    void limpar() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenRevogadoERejeitadoMesmoJaEstandoNoCache() {
+        String token = jwtUtil.gerarToken("maria@empresa.com");
+        String outro = jwtUtil.gerarToken("joao@empresa.com");
+        assertEquals("maria@empresa.com", jwtUtil.validarToken(token));
+        assertEquals("maria@empresa.com", jwtUtil.validarToken(token));
+        assertEquals(1L, jwtUtil.estatisticas().get("acertos"));
+
+        jwtUtil.revogar(token);
+
+        assertThrows(JwtException.class, () -> jwtUtil.validarToken(token));
+        assertEquals("joao@empresa.com", jwtUtil.validarToken(outro));
+    }
+
+    @Test
+    void filtroResponde401ParaTokenRevogado() throws ServletException, IOException {
+        String token = jwtUtil.gerarToken("maria@empresa.com");
+        JwtFilter filtro = new JwtFilter(jwtUtil);
+
+        assertEquals(200, requisitar(filtro, token).getStatus());
+        SecurityContextHolder.clearContext();
+
+        // Como o logout do frontend: Authorization explícito em POST /auth/logout
+        jwtUtil.revogar(token);
+
+        MockFilterChain cadeia = new MockFilterChain();
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        filtro.doFilter(requisicao(token), resposta, cadeia);
+        assertEquals(401, resposta.getStatus());
+        assertNull(cadeia.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletResponse requisitar(JwtFilter filtro, String token) throws ServletException, IOException {
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        filtro.doFilter(requisicao(token), resposta, new MockFilterChain());
+        return resposta;
+    }
+
+    private static MockHttpServletRequest requisicao(String token) {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/api/entradas");
+        requisicao.addHeader("Authorization", "Bearer " + token);
+        return requisicao;
+    }
+}
@@ -0,0 +1,57 @@
+package com.empresa.aplicacao.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AcumuladoresTest {
+
+    @Test
+    void remocaoDesfazACriacao() {
+        Acumuladores a = new Acumuladores();
+        a.aplicarEntrada(1, LocalDate.parse("2024-01-01"), 30, 1);
+        a.aplicarVenda(1, LocalDate.parse("2024-01-11"), 20, 1);
+        IndicadoresIncrementais.Totais antes = a.totaisAtuais();
+
+        a.aplicarEntrada(1, LocalDate.parse("2024-01-05"), 10, 1);
+        a.aplicarVenda(1, LocalDate.parse("2024-02-01"), 40, 1);
+        a.aplicarEntrada(1, LocalDate.parse("2024-01-05"), 10, -1);
+        a.aplicarVenda(1, LocalDate.parse("2024-02-01"), 40, -1);
+
+        assertEquals(antes, a.totaisAtuais());
+        assertEquals(10.0, a.totaisAtuais().pmre(), 1e-9);
+    }
+
+    @Test
+    void snapshotBinarioReproduzOsMesmosTotais() throws IOException {
+        Acumuladores original = new Acumuladores();
+        original.aplicarEntrada(1, LocalDate.parse("2024-01-01"), 30, 1);
+        original.aplicarEntrada(1, LocalDate.parse("2024-01-10"), 15, 1);
+        original.aplicarEntrada(7, LocalDate.parse("2024-02-01"), 60, 1);
+        original.aplicarVenda(1, LocalDate.parse("2024-01-15"), 28, 1);
+        original.aplicarVenda(7, LocalDate.parse("2024-02-11"), 0, 1);
+        original.aplicarEntrada(1, LocalDate.parse("2024-01-10"), 15, -1);
+
+        ByteArrayOutputStream dados = new ByteArrayOutputStream();
+        original.gravar(new DataOutputStream(dados));
+        // Versão + 4 totais + quantidade + 2 produtos com movimento
+        assertEquals(1 + 4 * 8 + 4 + 2 * 36, dados.size());
+
+        Acumuladores lido = new Acumuladores();
+        lido.aplicarVenda(3, LocalDate.parse("2023-12-01"), 5, 1);
+        lido.ler(new DataInputStream(new ByteArrayInputStream(dados.toByteArray())));
+        assertEquals(original.totaisAtuais(), lido.totaisAtuais());
+
+        // Os eventos seguintes continuam a partir do estado lido
+        original.aplicarVenda(1, LocalDate.parse("2024-03-01"), 30, 1);
+        lido.aplicarVenda(1, LocalDate.parse("2024-03-01"), 30, 1);
+        assertEquals(original.totaisAtuais(), lido.totaisAtuais());
+    }
+}
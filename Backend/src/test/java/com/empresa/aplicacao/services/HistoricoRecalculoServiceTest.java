@@ -0,0 +1,71 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.JobRecalculo;
+import com.empresa.aplicacao.models.GestaoHistorico;
+import com.empresa.aplicacao.repositories.GestaoHistoricoRepository;
+import com.empresa.aplicacao.repositories.GestaoRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Error no recálculo (OOM etc.) não deixa o trabalhador marcado como em execução:
+ * o job em andamento falha e o pedido seguinte é atendido.
+ */
+class HistoricoRecalculoServiceTest {
+
+    private static final String TENANT = "a@empresa.com";
+
+    @Test
+    void errorNoRecalculoFalhaOJobELiberaOTrabalhador() throws InterruptedException {
+        CalculoService calculoService = mock(CalculoService.class);
+        when(calculoService.calcularIndicadores(anyDouble()))
+                .thenThrow(new OutOfMemoryError("simulado"))
+                .thenReturn(new IndicadoresSnapshot(1, 1, 1, 2, 1, 360, 100));
+        GestaoHistoricoRepository historicoRepository = mock(GestaoHistoricoRepository.class);
+        when(historicoRepository.save(any(GestaoHistorico.class))).thenAnswer(i -> i.getArgument(0));
+
+        HistoricoRecalculoService service = new HistoricoRecalculoService();
+        ReflectionTestUtils.setField(service, "calculoService", calculoService);
+        ReflectionTestUtils.setField(service, "gestaoRepository", mock(GestaoRepository.class));
+        ReflectionTestUtils.setField(service, "gestaoHistoricoRepository", historicoRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "agruparMs", 0L);
+        ReflectionTestUtils.setField(service, "retencaoJobs", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(service, "maxJobs", 100L);
+        service.iniciar();
+        try {
+            JobRecalculo primeiro = TenantContexto.executar(TENANT, () -> service.solicitar(1000));
+            JobRecalculo falhou = aguardarFim(service, primeiro.id());
+            assertEquals(JobRecalculo.Status.FALHOU, falhou.status());
+            assertTrue(falhou.erro().contains("simulado"), falhou.erro());
+
+            JobRecalculo segundo = TenantContexto.executar(TENANT, () -> service.solicitar(1000));
+            assertEquals(JobRecalculo.Status.CONCLUIDO, aguardarFim(service, segundo.id()).status());
+        } finally {
+            service.encerrar();
+        }
+    }
+
+    private static JobRecalculo aguardarFim(HistoricoRecalculoService service, String id) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            JobRecalculo job = TenantContexto.executar(TENANT, () -> service.consultar(id));
+            if (job.status() == JobRecalculo.Status.CONCLUIDO || job.status() == JobRecalculo.Status.FALHOU
+                    || System.nanoTime() > limite) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
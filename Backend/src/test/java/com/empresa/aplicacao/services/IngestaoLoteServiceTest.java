@@ -0,0 +1,86 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.RelatorioLote;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bloco recusado pelo banco: só ele é desfeito, as linhas aparecem no relatório e os
+ * demais blocos são gravados.
+ */
+class IngestaoLoteServiceTest {
+
+    private static final String URL = "jdbc:h2:mem:ingestao;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void blocoRecusadoPeloBancoEntraNoRelatorio() throws Exception {
+        Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into produto (id, nome, chave) values (1, 'Arroz', 'arroz')");
+
+        IndicadoresIncrementais indicadores = mock(IndicadoresIncrementais.class);
+        when(indicadores.comEscrita(any(Supplier.class))).thenAnswer(i -> ((Supplier<Object>) i.getArgument(0)).get());
+        ProdutoCatalogo catalogo = mock(ProdutoCatalogo.class);
+        when(catalogo.obterOuCriar(anyString())).thenReturn(1);
+        ApplicationEventPublisher eventos = mock(ApplicationEventPublisher.class);
+
+        IngestaoLoteService service = new IngestaoLoteService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbc);
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "eventos", eventos);
+        ReflectionTestUtils.setField(service, "indicadores", indicadores);
+        ReflectionTestUtils.setField(service, "produtoCatalogo", catalogo);
+        ReflectionTestUtils.setField(service, "ledgerEventos", mock(LedgerEventos.class));
+        ReflectionTestUtils.setField(service, "tamanhoBloco", 2);
+        ReflectionTestUtils.setField(service, "maxErros", 100);
+
+        // Blocos: linhas 2-3, 4-5 (fornecedor acima de varchar(255)) e 6
+        String csv = "dataEntrada,fornecedor,produto,precoCompra,prazoPagto\n"
+                + "2024-01-01,f,Arroz,10,30\n"
+                + "2024-01-02,f,Arroz,10,30\n"
+                + "2024-01-03," + "x".repeat(300) + ",Arroz,10,30\n"
+                + "2024-01-04,f,Arroz,10,30\n"
+                + "2024-01-05,f,Arroz,10,30\n";
+
+        RelatorioLote relatorio = TenantContexto.executar("a@empresa.com", () -> {
+            try {
+                return service.importarEntradas(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "text/csv");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(5, relatorio.recebidas());
+        assertEquals(3, relatorio.inseridas());
+        assertEquals(2, relatorio.rejeitadas());
+        assertEquals(List.of(4L, 5L), relatorio.erros().stream().map(RelatorioLote.ErroLinha::linha).toList());
+        assertTrue(relatorio.erros().get(0).mensagem().startsWith("bloco das linhas 4 a 5"));
+        assertEquals(3, jdbc.queryForObject("select count(*) from entrada", Integer.class));
+        // Só os blocos gravados são publicados
+        verify(eventos, times(2)).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,84 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.models.Entrada;
+import com.empresa.aplicacao.models.Venda;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PmreEngineTest {
+
+    // Ids do catálogo (ProdutoCatalogo associa o mesmo id a nomes que diferem só em maiúsculas)
+    private static final Map<String, Integer> IDS = Map.of("arroz", 1, "feijão", 2, "milho", 3);
+
+    @Test
+    void mediaParesIgualAoCalculoPorPares() {
+        List<Entrada> entradas = List.of(
+                entrada("Arroz", "2024-01-01"),
+                entrada("arroz", "2024-01-10"),
+                entrada("Feijão", "2024-02-01"));
+        List<Venda> vendas = List.of(
+                venda("ARROZ", "2024-01-15"),
+                venda("Arroz", "2024-03-01"),
+                venda("Feijão", "2024-02-11"),
+                venda("Milho", "2024-02-11"));
+
+        double totalDias = 0;
+        int contador = 0;
+        for (Entrada e : entradas) {
+            for (Venda v : vendas) {
+                if (v.getProduto().equalsIgnoreCase(e.getProduto())) {
+                    totalDias += ChronoUnit.DAYS.between(e.getDataEntrada(), v.getDataVenda());
+                    contador++;
+                }
+            }
+        }
+
+        assertEquals(totalDias / contador,
+                PmreEngine.calcular(entradas, vendas, PmreEngine.Modo.MEDIA_PARES), 1e-9);
+    }
+
+    @Test
+    void fifoConsomeLoteMaisAntigo() {
+        List<Entrada> entradas = List.of(
+                entrada("Arroz", "2024-01-10"),
+                entrada("Arroz", "2024-01-01"));
+        List<Venda> vendas = List.of(
+                venda("Arroz", "2024-01-20"),
+                venda("Arroz", "2024-01-05"),
+                venda("Arroz", "2024-01-30"));
+
+        // 05/01 consome o lote de 01/01 (4 dias), 20/01 consome o de 10/01 (10 dias), 30/01 fica sem lote
+        assertEquals(7.0, PmreEngine.calcular(entradas, vendas, PmreEngine.Modo.FIFO), 1e-9);
+    }
+
+    @Test
+    void semParesRetornaZero() {
+        assertEquals(0.0, PmreEngine.calcular(
+                List.of(entrada("Arroz", "2024-01-01")),
+                List.of(venda("Milho", "2024-01-02")),
+                PmreEngine.Modo.MEDIA_PARES));
+    }
+
+    private static Entrada entrada(String produto, String data) {
+        Entrada e = new Entrada();
+        e.setProduto(produto);
+        e.setProdutoId(IDS.get(produto.toLowerCase(Locale.ROOT)));
+        e.setDataEntrada(LocalDate.parse(data));
+        return e;
+    }
+
+    private static Venda venda(String produto, String data) {
+        Venda v = new Venda();
+        v.setProduto(produto);
+        v.setProdutoId(IDS.get(produto.toLowerCase(Locale.ROOT)));
+        v.setDataVenda(LocalDate.parse(data));
+        return v;
+    }
+}
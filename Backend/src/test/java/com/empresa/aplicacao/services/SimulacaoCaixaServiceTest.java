@@ -0,0 +1,158 @@
+package com.empresa.aplicacao.services;
+
+import com.empresa.aplicacao.dto.SimulacaoRequisicao;
+import com.empresa.aplicacao.dto.SimulacaoResultado;
+import com.empresa.aplicacao.dto.SimulacaoResultado.BarraTornado;
+import com.empresa.aplicacao.dto.SimulacaoResultado.Classe;
+import com.empresa.aplicacao.repositories.AgregadoPrazo;
+import com.empresa.aplicacao.repositories.DispersaoProdutoDias;
+import com.empresa.aplicacao.repositories.EntradaRepository;
+import com.empresa.aplicacao.repositories.VendaRepository;
+import com.empresa.aplicacao.tenant.TenantContexto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Simulação com semente fixa sobre agregados conhecidos:
+ * PMRE 30 ± √50 (pares 30, 20, 40, 30), PMRV 20 ± 5 e PMPF 30 sem dispersão.
+ */
+class SimulacaoCaixaServiceTest {
+
+    private static final String TENANT = "a@empresa.com";
+    private static final long SEMENTE = 42L;
+
+    private SimulacaoCaixaService service;
+
+    @BeforeEach
+    void criar() {
+        EntradaRepository entradas = mock(EntradaRepository.class);
+        VendaRepository vendas = mock(VendaRepository.class);
+        when(entradas.agregarPrazo()).thenReturn(prazo(2, 60, 1800));
+        when(vendas.agregarPrazo()).thenReturn(prazo(4, 80, 1700));
+        // Entradas nos dias 19000 e 19010; vendas em 19030 e 19040
+        when(entradas.agregarDispersaoPorProduto(TENANT)).thenReturn(List.of(dispersao(1, 2, 38010, 19000L * 19000 + 19010L * 19010)));
+        when(vendas.agregarDispersaoPorProduto(TENANT)).thenReturn(List.of(dispersao(1, 2, 38070, 19030L * 19030 + 19040L * 19040)));
+
+        service = new SimulacaoCaixaService();
+        ReflectionTestUtils.setField(service, "entradaRepository", entradas);
+        ReflectionTestUtils.setField(service, "vendaRepository", vendas);
+        ReflectionTestUtils.setField(service, "maxCenarios", 1_000_000L);
+        ReflectionTestUtils.setField(service, "cenariosPorRodada", 100_000L);
+    }
+
+    @Test
+    void mesmaSementeReproduzOResultado() {
+        List<SimulacaoResultado> parciais = new ArrayList<>();
+        SimulacaoResultado primeiro = simular(200_000, 100_000.0, parciais::add);
+        SimulacaoResultado segundo = simular(200_000, 100_000.0, r -> {});
+
+        assertEquals(primeiro, segundo);
+        // Duas rodadas: um parcial e o final
+        assertEquals(2, parciais.size());
+        assertTrue(parciais.get(0).parcial());
+        assertEquals(100_000, parciais.get(0).cenarios());
+        assertEquals(200_000, primeiro.cenarios());
+    }
+
+    @Test
+    void percentisEHistogramaFicamDentroDosLimites() {
+        SimulacaoResultado r = simular(200_000, 100_000.0, x -> {});
+
+        double anterior = r.minimo();
+        for (double p : r.percentis().values()) {
+            assertTrue(p >= anterior, () -> "percentis fora de ordem: " + r.percentis());
+            anterior = p;
+        }
+        assertTrue(r.maximo() >= anterior);
+        assertTrue(r.minimo() <= r.media() && r.media() <= r.maximo());
+
+        long total = 0;
+        double limite = r.histograma().get(0).de();
+        for (Classe c : r.histograma()) {
+            assertEquals(limite, c.de(), 1e-6);
+            limite = c.ate();
+            total += c.quantidade();
+        }
+        assertEquals(200_000, total);
+        assertTrue(r.histograma().get(0).de() <= r.minimo() && limite >= r.maximo());
+
+        // E[gastos × (PMRE + PMRV - PMPF)] / 360 = 100.000 × 20 / 360
+        assertEquals(100_000.0 * 20 / 360, r.media(), 100_000.0 * 20 / 360 * 0.01);
+    }
+
+    @Test
+    void saldoCresceComOsGastos() {
+        SimulacaoResultado menor = simular(100_000, 50_000.0, x -> {});
+        SimulacaoResultado medio = simular(100_000, 100_000.0, x -> {});
+        SimulacaoResultado maior = simular(100_000, 200_000.0, x -> {});
+
+        assertTrue(menor.media() < medio.media() && medio.media() < maior.media());
+        for (String p : List.of("p50", "p90", "p99")) {
+            assertTrue(menor.percentis().get(p) < medio.percentis().get(p), p);
+            assertTrue(medio.percentis().get(p) < maior.percentis().get(p), p);
+        }
+        assertTrue(menor.maximo() < medio.maximo() && medio.maximo() < maior.maximo());
+    }
+
+    @Test
+    void tornadoSegueOSinalDeCadaVariavel() {
+        SimulacaoResultado r = simular(10_000, 100_000.0, x -> {});
+
+        for (BarraTornado b : r.tornado()) {
+            if (b.variavel().equals("pmpf")) {
+                // PMPF sem dispersão: barra de largura zero
+                assertEquals(b.saldoBaixo(), b.saldoAlto(), 1e-9);
+            } else {
+                assertTrue(b.saldoAlto() > b.saldoBaixo(), b.variavel());
+            }
+        }
+        // Ordenado pela largura da barra
+        for (int i = 1; i < r.tornado().size(); i++) {
+            BarraTornado a = r.tornado().get(i - 1);
+            BarraTornado b = r.tornado().get(i);
+            assertTrue(Math.abs(a.saldoAlto() - a.saldoBaixo()) >= Math.abs(b.saldoAlto() - b.saldoBaixo()));
+        }
+    }
+
+    @Test
+    void requisicaoForaDosLimitesERejeitada() {
+        assertThrows(IllegalArgumentException.class, () -> service.validar(new SimulacaoRequisicao(0L, SEMENTE, 1.0, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.validar(new SimulacaoRequisicao(1_000_001L, SEMENTE, 1.0, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.validar(new SimulacaoRequisicao(10L, SEMENTE, 1.0, -0.1, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.validar(new SimulacaoRequisicao(10L, SEMENTE, 1.0, null, 4097)));
+        assertThrows(IllegalArgumentException.class, () -> service.validar(new SimulacaoRequisicao(10L, SEMENTE, null, null, null)));
+    }
+
+    private SimulacaoResultado simular(long cenarios, double gastos, Consumer<SimulacaoResultado> parciais) {
+        return TenantContexto.executar(TENANT, () ->
+                service.simular(new SimulacaoRequisicao(cenarios, SEMENTE, gastos, 0.1, 20), parciais));
+    }
+
+    private static AgregadoPrazo prazo(long quantidade, long soma, long quadrados) {
+        return new AgregadoPrazo() {
+            public Number getQuantidade() { return quantidade; }
+            public Number getSomaPrazo() { return soma; }
+            public Number getSomaQuadradosPrazo() { return quadrados; }
+        };
+    }
+
+    private static DispersaoProdutoDias dispersao(int produtoId, long quantidade, long somaDias, long quadrados) {
+        return new DispersaoProdutoDias() {
+            public Number getProdutoId() { return produtoId; }
+            public Number getQuantidade() { return quantidade; }
+            public Number getSomaDias() { return somaDias; }
+            public Number getSomaQuadrados() { return quadrados; }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.empresa.aplicacao.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TenantContextoTest {
+
+    @AfterEach
+    void limpar() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void semAutenticacaoNaoHaTenant() {
+        assertNull(TenantContexto.resolver());
+        assertThrows(AuthenticationCredentialsNotFoundException.class, TenantContexto::atual);
+
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "chave", "anonimo", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertThrows(AuthenticationCredentialsNotFoundException.class, TenantContexto::atual);
+
+        // Sessões do Hibernate fora de um tenant não enxergam dados de nenhum
+        assertEquals(TenantResolver.SEM_TENANT, new TenantResolver().resolveCurrentTenantIdentifier());
+    }
+
+    @Test
+    void subjectDoJwtNormalizado() {
+        autenticar(" Maria@Empresa.com ");
+        assertEquals("maria@empresa.com", TenantContexto.atual());
+    }
+
+    @Test
+    void executarSobrepoeERestauraOTenant() {
+        autenticar("maria@empresa.com");
+
+        String dentro = TenantContexto.executar("joao@empresa.com",
+                () -> TenantContexto.executar("ana@empresa.com", TenantContexto::atual) + "," + TenantContexto.atual());
+
+        assertEquals("ana@empresa.com,joao@empresa.com", dentro);
+        assertEquals("maria@empresa.com", TenantContexto.atual());
+    }
+
+    @Test
+    void subjectVazioOuLongoDemaisERejeitado() {
+        assertThrows(IllegalArgumentException.class, () -> TenantContexto.normalizar("  "));
+        assertThrows(IllegalArgumentException.class,
+                () -> TenantContexto.normalizar("a".repeat(TenantContexto.TAMANHO_MAXIMO + 1)));
+    }
+
+    private static void autenticar(String email) {
+        // Como o JwtFilter: principal = e-mail do token, sem credenciais
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, null));
+    }
+}
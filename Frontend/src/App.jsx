@@ -4,16 +4,29 @@ import Entradas from "./pages/Entradas";
 import Vendas from "./pages/Vendas";
 import Gestao from "./pages/Gestao";
 import Login from "./pages/Login";
+import api from "./services/Api";
 
 function App() {
     const navigate = useNavigate();
     const isAuthenticated = localStorage.getItem("jwt");
 
-    const handleLogout = () => {
-        localStorage.removeItem("jwt");
-        localStorage.removeItem("email");
-        localStorage.removeItem("nome");
-        navigate("/login");
+    const handleLogout = async () => {
+        // Revoga o token no servidor antes de limpar o armazenamento (falha não impede a saída local)
+        const token = localStorage.getItem("jwt");
+        try {
+            if (token) {
+                await api.post("/auth/logout", null, {
+                    headers: { Authorization: `Bearer ${token}` },
+                });
+            }
+        } catch {
+            // segue com a saída local
+        } finally {
+            localStorage.removeItem("jwt");
+            localStorage.removeItem("email");
+            localStorage.removeItem("nome");
+            navigate("/login");
+        }
     };
 
     const nome = localStorage.getItem("nome");
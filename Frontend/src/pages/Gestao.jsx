@@ -41,14 +41,25 @@ function Gestao() {
         }
     };
 
+    // ⏳ Aguarda o recálculo do histórico (job em segundo plano)
+    const aguardarJob = async (id) => {
+        for (let i = 0; i < 20; i++) {
+            const { data } = await api.get(`/api/gestao/historico/jobs/${id}`);
+            if (data.status === "CONCLUIDO" || data.status === "FALHOU") return data;
+            await new Promise((r) => setTimeout(r, 250));
+        }
+        return null;
+    };
+
     // 💾 Salvar previsão de gastos
     const enviar = async (e) => {
         e.preventDefault();
         if (!previsao || isNaN(previsao)) return;
         try {
-            await api.post("/api/gestao", {
+            const res = await api.post("/api/gestao", {
                 previsaoGastos: parseFloat(previsao),
             });
+            await aguardarJob(res.data.job.id);
             setPrevisao("");
             setToast({ message: "✅ Previsão de gastos salva!", type: "success" });
             await calcular(); // ✅ Aguarda recalcular após salvar previsão
@@ -10,7 +10,7 @@ const api = axios.create({
 // ✅ Intercepta todas as requisições e adiciona o token JWT automaticamente
 api.interceptors.request.use(
     (config) => {
-        const token = localStorage.getItem("token"); // <-- o JWT é salvo no login
+        const token = localStorage.getItem("jwt"); // <-- mesma chave usada no login (Login.jsx)
         if (token) {
             config.headers.Authorization = `Bearer ${token}`;
         }